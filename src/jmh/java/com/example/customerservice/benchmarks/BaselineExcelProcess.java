@@ -0,0 +1,216 @@
+package com.example.customerservice.benchmarks;
+
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import com.example.customerservice.util.ExcelProcess;
+
+/**
+ * The eight packing-sheet passes as ExcelProcess had them before the one-pass
+ * formatter: a full walk of the sheet each, the blank list checked name by
+ * name, a linear scan of the merged regions per cell and a new cell style per
+ * bolded cell. Kept for FormattingBenchmark.separatePasses only. The one
+ * change is that initializeStyles creates the bold font for every workbook;
+ * the original cached it in a static for the first workbook it saw.
+ */
+final class BaselineExcelProcess {
+    private static final java.util.List<String> BLANK_CUSTOMERS = ExcelProcess.DEFAULT_BLANK_CUSTOMERS;
+    private static final int[] COLUMN_SET_1 = { 0, 1, 2 };
+    private static final int[] COLUMN_SET_2 = { 4, 5, 6 };
+    private static final java.util.List<String> VALUES_TO_CLEAR_CONTENT = Arrays.asList("תוספות", "סך הכל");
+    private static final java.util.List<Integer> COLUMNS_TO_CLEAR_VALUES = Arrays.asList(2, 6);
+    private static final java.util.List<Integer> COLUMNS_TO_INVISIBLE = Arrays.asList(2, 6);
+    private static final java.util.List<String> SUBS_TO_REMOVE = Arrays.asList("מעוטף עזה ", "(לא חסלט)",
+            "נא לפתוח את ההערה",
+            "כ1.5 ק\"ג בסלסלה",
+            "מעולות", "גדול להשיג", " בשקית", "כשרות אפרתי", "(סלסלה קטנה)", "נקי מחרקים", "ישראלי ואיכותי", "מחיר ",
+            "בחזקת ניקיון כמו");
+
+    private static XSSFFont boldFont;
+
+    private BaselineExcelProcess() {
+    }
+
+    static void initializeStyles(Workbook workbook) {
+        boldFont = ((XSSFWorkbook) workbook).createFont();
+        boldFont.setBold(true);
+        boldFont.setFontHeightInPoints((short) 13);
+    }
+
+    static void blankCustomers(Sheet ordersSheet) {
+        for (int r = ordersSheet.getFirstRowNum(); r <= ordersSheet.getLastRowNum(); r++) {
+            for (String blankCustomer : BLANK_CUSTOMERS) {
+                blankColumn(ordersSheet, COLUMN_SET_1, blankCustomer, r);
+                blankColumn(ordersSheet, COLUMN_SET_2, blankCustomer, r);
+            }
+        }
+    }
+
+    static boolean blankColumn(Sheet sheet, int[] columnIndices, String blankCustomer, int startRow) {
+        Row startRowObj = sheet.getRow(startRow);
+        if (startRowObj == null)
+            return false;
+        Cell firstCell = startRowObj.getCell(columnIndices[0]);
+        String cellValue = ExcelProcess.getCellValueAsString(firstCell);
+        if (cellValue != null && cellValue.contains(blankCustomer)) {
+            ExcelProcess.setFontColorToWhite(firstCell);
+            for (int r = startRow + 1; r <= sheet.getLastRowNum(); r++) {
+                Row currentRow = sheet.getRow(r);
+                if (currentRow == null)
+                    continue;
+                Cell firstCellOfRow = currentRow.getCell(columnIndices[0]);
+                String currentRowValue = ExcelProcess.getCellValueAsString(firstCellOfRow);
+                if (currentRowValue != null && currentRowValue.contains(ExcelProcess.ISUF_LOD)) {
+                    return true;
+                }
+                for (int colIndex : columnIndices) {
+                    Cell cellToBlank = currentRow.getCell(colIndex);
+                    if (cellToBlank == null)
+                        cellToBlank = currentRow.createCell(colIndex, CellType.BLANK);
+                    ExcelProcess.setFontColorToWhite(cellToBlank);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static void clearSpecificValues(Sheet sheet) {
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                if (cell.getCellType() == CellType.STRING
+                        && VALUES_TO_CLEAR_CONTENT.contains(cell.getStringCellValue())) {
+                    ExcelProcess.setFontColorToWhite(cell);
+                }
+            }
+        }
+    }
+
+    static void clearNonMergedCellValuesInColumns(Sheet sheet) {
+        java.util.List<CellRangeAddress> mergedRegions = sheet.getMergedRegions();
+        for (int r = sheet.getFirstRowNum(); r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null)
+                continue;
+            for (int colIndex : COLUMNS_TO_CLEAR_VALUES) {
+                Cell cell = row.getCell(colIndex);
+                if (cell == null)
+                    continue;
+                boolean isMerged = false;
+                for (CellRangeAddress range : mergedRegions) {
+                    if (range.isInRange(r, colIndex)) {
+                        isMerged = true;
+                        break;
+                    }
+                }
+                if (!isMerged) {
+                    ExcelProcess.setFontColorToWhite(cell);
+                }
+            }
+        }
+    }
+
+    static void makeColumnsInvisible(Sheet sheet) {
+        for (int colIndex : COLUMNS_TO_INVISIBLE) {
+            for (Row row : sheet) {
+                Cell cell = row.getCell(colIndex);
+                if (cell == null)
+                    cell = row.createCell(colIndex, CellType.BLANK);
+                ExcelProcess.setFontColorToWhite(cell);
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    static void setPageSetup(Sheet sheet) {
+        sheet.getPrintSetup().setPaperSize(org.apache.poi.ss.usermodel.PrintSetup.A4_PAPERSIZE);
+        sheet.getPrintSetup().setLandscape(false);
+        sheet.setMargin(Sheet.LeftMargin, 0.1);
+        sheet.setMargin(Sheet.RightMargin, 0.7);
+        sheet.setMargin(Sheet.TopMargin, 0.75);
+        sheet.setMargin(Sheet.BottomMargin, 0.75);
+        sheet.setMargin(Sheet.HeaderMargin, 0.1);
+        sheet.setMargin(Sheet.FooterMargin, 0.1);
+    }
+
+    static void setColumnWidths(Sheet sheet) {
+        sheet.setColumnWidth(1, 10 * 256);
+        sheet.setColumnWidth(2, 1 * 256);
+        sheet.setColumnWidth(3, 19 * 256);
+        sheet.setColumnWidth(5, 10 * 256);
+        sheet.setColumnWidth(6, 1 * 256);
+    }
+
+    static void boldQuantities(Sheet sheet) {
+        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null)
+                continue;
+            Cell checkCellB = row.getCell(1);
+            Cell adjCellA = row.getCell(0);
+            Cell checkCellF = row.getCell(5);
+            Cell adjCellE = row.getCell(4);
+            if (checkCellB != null) {
+                String cellValue = ExcelProcess.getCellValueAsString(checkCellB);
+                if (cellValue.contains("יח'") && !cellValue.contains("1") && !cellValue.contains("0")) {
+                    setBold13Font(checkCellB);
+                    if (adjCellA != null)
+                        setBold13Font(adjCellA);
+                }
+            }
+            if (checkCellF != null) {
+                String cellValue = ExcelProcess.getCellValueAsString(checkCellF);
+                if (cellValue.contains("יח'") && !cellValue.contains("1") && !cellValue.contains("0")) {
+                    setBold13Font(checkCellF);
+                    if (adjCellE != null)
+                        setBold13Font(adjCellE);
+                }
+            }
+        }
+    }
+
+    static void cleanupItemNames(Sheet sheet) {
+        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null)
+                continue;
+            for (int colIndex : new int[] { 0, 4 }) {
+                Cell cell = row.getCell(colIndex);
+                if (cell == null || cell.getCellType() != CellType.STRING)
+                    continue;
+                String value = cell.getStringCellValue();
+                if (value == null)
+                    continue;
+                for (String sub : SUBS_TO_REMOVE)
+                    value = value.replace(sub, "");
+                if (value.contains("תפו\"א אדום") && !value.contains("(אדום)")) {
+                    value = "(אדום) " + value;
+                    setBold13Font(cell);
+                }
+                if (value.contains("חרמון"))
+                    value = value.replace("חרמון", "(אדום) חרמון");
+                cell.setCellValue(value.trim());
+            }
+        }
+    }
+
+    static void setBold13Font(Cell cell) {
+        if (cell != null) {
+            Workbook wb = cell.getSheet().getWorkbook();
+            CellStyle orig = cell.getCellStyle();
+            CellStyle ns = wb.createCellStyle();
+            ns.cloneStyleFrom(orig);
+            ns.setFont(boldFont);
+            cell.setCellStyle(ns);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.customerservice.util.ExcelProcess;
+
+/**
+ * The per-cell helpers on every product, quantity and price cell of a
+ * 1,000-block sheet: strToFloat on the quantity and price text the parser feeds
+ * it, and getCellValueAsString on every cell. Scores are per sheet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CellValueBenchmark {
+
+    private XSSFWorkbook workbook;
+    private final List<Cell> cells = new ArrayList<>();
+    private final List<String> numbers = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        workbook = new XSSFWorkbook(new ByteArrayInputStream(WorkbookGenerator.ordersWorkbook(1000, 42)));
+        for (Row row : workbook.getSheetAt(0)) {
+            for (Cell cell : row) {
+                cells.add(cell);
+                String text = cell.toString();
+                // "1.000 ק"ג", "2 יח'" and "₪13.90" as the parser splits them
+                if (text.contains("₪") || text.contains("יח") || text.contains("ק\"ג"))
+                    numbers.add(text.split(" ")[0].trim());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public void strToFloat(Blackhole bh) {
+        for (String s : numbers)
+            bh.consume(ExcelProcess.strToFloat(s));
+    }
+
+    @Benchmark
+    public void getCellValueAsString(Blackhole bh) {
+        for (Cell cell : cells)
+            bh.consume(ExcelProcess.getCellValueAsString(cell));
+    }
+}
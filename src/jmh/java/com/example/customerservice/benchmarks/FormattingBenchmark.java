@@ -0,0 +1,115 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.customerservice.util.ExcelProcess;
+import com.example.customerservice.util.MultiPatternMatcher;
+
+/**
+ * Packing-sheet formatting on a loaded (XSSF) sheet: the fused one-pass
+ * formatter, the eight separate passes it replaced (copied in
+ * BaselineExcelProcess), and each current function on its own. Every invocation formats a freshly loaded copy of the workbook;
+ * loading it is not measured. Sizes above 10,000 blocks need a larger heap, e.g.
+ * -p blocks=50000 -jvmArgs -Xmx8g.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FormattingBenchmark {
+    private static final MultiPatternMatcher BLANK_CUSTOMERS = new MultiPatternMatcher(
+            ExcelProcess.DEFAULT_BLANK_CUSTOMERS);
+
+    @Param({ "100", "1000", "10000" })
+    public int blocks;
+
+    private byte[] source;
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        source = WorkbookGenerator.ordersWorkbook(blocks, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void load() throws IOException {
+        workbook = new XSSFWorkbook(new ByteArrayInputStream(source));
+        sheet = workbook.getSheetAt(0);
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public Sheet packingSheetFormatter() {
+        ExcelProcess.packingSheetFormatter(BLANK_CUSTOMERS).format(sheet);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet separatePasses() {
+        BaselineExcelProcess.initializeStyles(workbook);
+        BaselineExcelProcess.blankCustomers(sheet);
+        BaselineExcelProcess.clearSpecificValues(sheet);
+        BaselineExcelProcess.clearNonMergedCellValuesInColumns(sheet);
+        BaselineExcelProcess.makeColumnsInvisible(sheet);
+        BaselineExcelProcess.cleanupItemNames(sheet);
+        BaselineExcelProcess.boldQuantities(sheet);
+        BaselineExcelProcess.setColumnWidths(sheet);
+        BaselineExcelProcess.setPageSetup(sheet);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet blankCustomers() {
+        ExcelProcess.blankCustomers(sheet, BLANK_CUSTOMERS);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet clearSpecificValues() {
+        ExcelProcess.clearSpecificValues(sheet);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet clearNonMergedCellValuesInColumns() {
+        ExcelProcess.clearNonMergedCellValuesInColumns(sheet);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet cleanupItemNames() {
+        ExcelProcess.cleanupItemNames(sheet);
+        return sheet;
+    }
+
+    @Benchmark
+    public Sheet boldQuantities() {
+        ExcelProcess.boldQuantities(sheet);
+        return sheet;
+    }
+}
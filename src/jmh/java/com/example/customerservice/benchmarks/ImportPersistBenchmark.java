@@ -0,0 +1,104 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.customerservice.CustomerServiceApplication;
+import com.example.customerservice.service.CustomerService;
+import com.example.customerservice.service.ImportService;
+import com.example.customerservice.service.ImportSummary;
+import com.example.customerservice.util.OrdersSheetParser;
+import com.example.customerservice.util.OrdersSheetReader;
+
+/**
+ * The persist stage of a replacing import against an in-memory H2 database,
+ * with JDBC batching off (batchSize 0, one statement per row) and at the
+ * application's setting of 50. Each invocation parses the workbook again, which
+ * is not measured, and replaces the previous invocation's rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportPersistBenchmark {
+
+    @Param({ "100", "1000" })
+    public int blocks;
+
+    @Param({ "0", "50" })
+    public int batchSize;
+
+    private byte[] source;
+    private Path ordersFolder;
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private ImportService importService;
+    private TransactionTemplate transactionTemplate;
+    private OrdersSheetParser parser;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        source = WorkbookGenerator.ordersWorkbook(blocks, 42);
+        // the in-memory manifest starts empty; keep the store away from the real uploaded_excels
+        ordersFolder = Files.createTempDirectory("orders-bench-");
+        context = new SpringApplicationBuilder(CustomerServiceApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--orders.files.folder=" + ordersFolder,
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--spring.devtools.restart.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--logging.level.root=warn");
+        customerService = context.getBean(CustomerService.class);
+        importService = context.getBean(ImportService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(ordersFolder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList())
+                Files.delete(file);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void parse() throws Exception {
+        parser = new OrdersSheetParser(LocalDateTime.now());
+        OrdersSheetReader.read(new ByteArrayInputStream(source), parser);
+        parser.resolveCustomers(customerService::findByNamesIgnoreCase);
+    }
+
+    @Benchmark
+    public ImportSummary replaceAll() {
+        return transactionTemplate.execute(status -> importService.replaceAll(parser.getCustomers(),
+                parser.getItems(), parser.getOrders(), parser.getOrderItems()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.customerservice.util.ExcelProcess;
+
+/**
+ * Product-name cleanup on the real product names of the sample exports in
+ * docs/*.xlsx (every string in the product columns below the first row, as the
+ * formatter sees them): the old chain of one replace per SUBS_TO_REMOVE entry
+ * against ExcelProcess.cleanupItemName, which scans each name once with the
+ * MultiPatternMatcher. Scores are per pass over all the names. Run from the
+ * project directory, or point -p docs at the folder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemNameCleanupBenchmark {
+    // copied from ExcelProcess before the matcher replaced the replace chain
+    private static final List<String> SUBS_TO_REMOVE = Arrays.asList("מעוטף עזה ", "(לא חסלט)",
+            "נא לפתוח את ההערה",
+            "כ1.5 ק\"ג בסלסלה",
+            "מעולות", "גדול להשיג", " בשקית", "כשרות אפרתי", "(סלסלה קטנה)", "נקי מחרקים", "ישראלי ואיכותי", "מחיר ",
+            "בחזקת ניקיון כמו");
+
+    @Param({ "docs" })
+    public String docs;
+
+    private final List<String> names = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(docs), "*.xlsx")) {
+            for (Path file : files) {
+                // read only: a workbook opened on the file itself is written back on close
+                try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+                        XSSFWorkbook workbook = new XSSFWorkbook(pkg)) {
+                    for (Row row : workbook.getSheetAt(0)) {
+                        if (row.getRowNum() < 1)
+                            continue;
+                        for (int colIndex : new int[] { 0, 4 }) {
+                            Cell cell = row.getCell(colIndex);
+                            if (cell != null && cell.getCellType() == CellType.STRING)
+                                names.add(cell.getStringCellValue());
+                        }
+                    }
+                } catch (InvalidFormatException e) {
+                    throw new IOException(file + " is not an xlsx workbook", e);
+                }
+            }
+        }
+        if (names.isEmpty())
+            throw new IllegalStateException("No product names in " + Paths.get(docs).toAbsolutePath());
+        for (String name : names) {
+            if (!replaceChain(name).equals(ExcelProcess.cleanupItemName(name)))
+                throw new IllegalStateException("Cleanups differ on " + name);
+        }
+    }
+
+    @Benchmark
+    public void replaceChain(Blackhole bh) {
+        for (String name : names)
+            bh.consume(replaceChain(name));
+    }
+
+    @Benchmark
+    public void multiPatternMatcher(Blackhole bh) {
+        for (String name : names)
+            bh.consume(ExcelProcess.cleanupItemName(name));
+    }
+
+    /** The old cleanupItemNames body for one name, without the bolding. */
+    private static String replaceChain(String value) {
+        for (String sub : SUBS_TO_REMOVE)
+            value = value.replace(sub, "");
+        if (value.contains("תפו\"א אדום") && !value.contains("(אדום)"))
+            value = "(אדום) " + value;
+        if (value.contains("חרמון"))
+            value = value.replace("חרמון", "(אדום) חרמון");
+        return value.trim();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.customerservice.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.customerservice.model.Customer;
+import com.example.customerservice.util.CustomerPhoneIndex;
+
+/**
+ * Matching one Paybox export's payments to customers by phone: the old scan of
+ * every customer's phones per payment, and the phone index
+ * UploadPackagesPayboxController builds once per upload (the build is part of
+ * the score). One in ten payments comes from an unknown number. Scores are per
+ * export of {@link #PAYMENTS} payments.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayboxMatchBenchmark {
+    static final int PAYMENTS = 500;
+
+    @Param({ "100", "1000", "10000", "50000" })
+    public int customers;
+
+    private List<Customer> allCustomers;
+    private List<String> phones;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        allCustomers = new ArrayList<>();
+        for (int i = 0; i < customers; i++) {
+            WorkbookGenerator.GeneratedCustomer generated = WorkbookGenerator.customer(i, 42);
+            Customer customer = new Customer();
+            customer.setName(generated.getName());
+            customer.setPhones(String.join(" ", generated.getPhones()));
+            allCustomers.add(customer);
+        }
+        Random random = new Random(42);
+        phones = new ArrayList<>();
+        for (int p = 0; p < PAYMENTS; p++)
+            phones.add(random.nextInt(10) == 0 ? "0500000000" : WorkbookGenerator.phone(random.nextInt(customers), 42));
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        for (String phone : phones) {
+            Customer matchedCustomer = allCustomers.stream()
+                    .filter(c -> c.getPhones() != null && c.getPhones().contains(phone))
+                    .findFirst().orElse(null);
+            bh.consume(matchedCustomer);
+        }
+    }
+
+    @Benchmark
+    public void phoneIndex(Blackhole bh) {
+        CustomerPhoneIndex index = new CustomerPhoneIndex(allCustomers);
+        for (String phone : phones)
+            bh.consume(index.find(phone));
+    }
+}
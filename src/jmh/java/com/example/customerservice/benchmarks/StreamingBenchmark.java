@@ -0,0 +1,68 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.customerservice.util.ExcelProcess;
+import com.example.customerservice.util.MultiPatternMatcher;
+import com.example.customerservice.util.OrdersSheetParser;
+import com.example.customerservice.util.OrdersSheetReader;
+import com.example.customerservice.util.PackingSheetWriter;
+
+/**
+ * The streamed paths over a whole orders workbook: the import's read-and-parse
+ * loop, and writing the formatted packing copy. Neither holds the sheet in
+ * memory, so these run up to the largest generated size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingBenchmark {
+    private static final MultiPatternMatcher BLANK_CUSTOMERS = new MultiPatternMatcher(
+            ExcelProcess.DEFAULT_BLANK_CUSTOMERS);
+
+    @Param({ "100", "1000", "10000", "50000" })
+    public int blocks;
+
+    private byte[] source;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        source = WorkbookGenerator.ordersWorkbook(blocks, 42);
+    }
+
+    @Benchmark
+    public OrdersSheetParser parseOrders() throws Exception {
+        OrdersSheetParser parser = new OrdersSheetParser(LocalDateTime.now());
+        OrdersSheetReader.read(new ByteArrayInputStream(source), parser);
+        return parser;
+    }
+
+    @Benchmark
+    public void writePackingSheet() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(new ByteArrayInputStream(source))) {
+            PackingSheetWriter.write(pkg, Map.of(), BLANK_CUSTOMERS, OutputStream.nullOutputStream());
+        }
+    }
+}
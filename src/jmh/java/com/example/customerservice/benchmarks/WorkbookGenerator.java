@@ -0,0 +1,425 @@
+package com.example.customerservice.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import com.example.customerservice.util.ExcelProcess;
+
+/**
+ * Test workbooks at any scale, for benchmarks, load tests and UI tests. For a
+ * number of customer blocks and a seed it writes three matching files:
+ * <ul>
+ * <li>an orders workbook in the layout of the weekly export: customer blocks
+ * side by side in two column groups, each a merged "name / איסוף: לוד / phones"
+ * header, a "מוצר" title row, product rows with "2 יח'" or "1.500 ק"ג"
+ * quantities and "₪" prices, a fee row, a total row and a spacer row, with a
+ * page break after every pair of blocks. Product names are real ones from past
+ * exports, and about one block in fifty belongs to a blank-list customer;</li>
+ * <li>a Paybox export with the columns the Paybox upload reads (name, phone,
+ * "payment", date, package type), oldest row first: this week's payments of most
+ * customers, some from unknown numbers, and a configurable number of older
+ * weeks that the upload must stop at;</li>
+ * <li>a customers CSV (name, phone, address) for the customers upload.</li>
+ * </ul>
+ * Everything about block {@code i} is derived from (seed, i) alone, so the same
+ * customer has the same name, phones and total in all three files, and the same
+ * arguments always give the same files. Paybox dates are relative to a given
+ * "now".
+ *
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:java@generate -Dgenerator.args="--blocks 5000 --seed 7 --out /tmp/workbooks"
+ * </pre>
+ */
+public final class WorkbookGenerator {
+
+    // name, unit item (else sold by kg), price per unit or kg
+    private static final Object[][] PRODUCTS = {
+            { "אבוקדו מובחר", false, 13.9 }, { "אפרסק", false, 10.9 }, { "אוכמניות", true, 14.9 },
+            { "בטטה מעוטף עזה", false, 3.5 }, { "אננס ישראלי- קטן", true, 18.9 }, { "בננה מובחרת", false, 10.9 },
+            { "בצל \"ישראלי\" איכותי", false, 4.9 }, { "גזר מובחר ארוז בשקית", true, 5.2 },
+            { "חסה לאליק נקי מחרקים", true, 9.6 }, { "בצל שאלוט", true, 9.9 }, { "חציל חממה מובחר", false, 4.9 },
+            { "כוסברה חסלט", true, 5.8 }, { "מלון מובחר(יחידה)", true, 15.9 }, { "כרוב לבן שלם חסלט", true, 14.9 },
+            { "מלפפון מובחר ישראלי", false, 7.5 }, { "לימון", false, 7.5 }, { "מנגולד- עלי סלק חסלט", true, 6.8 },
+            { "משמש מעולה", false, 29.9 }, { "עגבנייה ישראלית", false, 9.9 },
+            { "נקטרינה מובחרת לבנה/ צהובה", false, 13.9 }, { "פטריות פורטובלה", true, 8.2 },
+            { "פטרוזיליה של חסלט", true, 5.4 }, { "פטריות שימג'י לבן", true, 8.2 },
+            { "פטריות שמפיניון מעולות", true, 6.9 }, { "פלפל אדום איכות", false, 10.5 }, { "קולורבי", false, 7.2 },
+            { "שרי לובלו פרימיום", true, 16.9 }, { "קישוא ישראלי", false, 5.5 },
+            { "תפוח עץ ירוק- ישראלי", false, 11.2 }, { "שרי צהוב ישראלי ואיכותי", true, 23.9 },
+            { "תפו\"א לבן 4 ק\"ג מעוטף עזה", true, 12.8 }, { "תפוח עץ אדום- ישראלי", false, 11.4 },
+            { "חסה חסלט", true, 5.9 }, { "נבטים אלפלפא", true, 5.2 }, { "פלפל צהוב", false, 10.9 },
+            { "פלפל צ'ילי ארוז", true, 5.5 }, { "שורש פטרוזליה", true, 4.8 }, { "קיווי ישראלי מובחר", false, 24.9 },
+            { "שמיר חסלט", true, 5.8 }, { "שום טרי ישראלי", false, 22.9 },
+            { "תפו\"א לבן מעוטף עזה - במשקל", false, 4.4 }, { "תפו\"א למיקרו(700 גרם בשקית)", true, 4.7 },
+            { "תפוז", false, 4.9 }, { "אגס-סלסלה כ1.5 ק\"ג בסלסלה", true, 11.9 }, { "שום קלוף 1 ק\"ג", true, 18.9 },
+            { "סלרי חסלט", true, 6.8 }, { "שומר", false, 7.5 }, { "בצל ירוק- נקי מחרקים(לא חסלט)", true, 5.2 },
+            { "שרי ליקופן", true, 24.9 }, { "קלחי תירס", true, 16.9 }, { "גזר צבעוני", true, 7.9 },
+            { "כרוב אדום שלם חסלט", true, 17.9 }, { "נענע- נקי מחרקים(לא חסלט)", true, 4.8 },
+            { "סלק מבושל", true, 5.9 }, { "דלעת חתוכה", true, 8.7 }, { "תפו\"א אדום 4 ק\"ג  מעוטף עזה", true, 15.0 },
+            { "חסה סלנובה נקי מחרקים", true, 9.6 }, { "מלפפון בייבי(חבילה קטנה)", true, 7.3 },
+            { "קלמנטינה", false, 4.7 }, { "תמר דרי 1 ק\"ג", true, 19.9 }, { "צנונית ארוזה", true, 4.5 },
+            { "גזר קצוץ(כ1 ק\"ג ביחידה)", true, 11.6 }, { "אספרגוס", true, 23.9 }, { "ג'ינג'ר -יחידה", true, 8.9 },
+            { "שום יבש- רביעיה(יבוא)", true, 3.4 }, { "כוסברה נקי מחרקים - לא חסלט", true, 4.9 },
+            { "בזיליקום כשרות אפרתי כ50 גרם ליח", true, 4.4 }, };
+
+    private static final String[] FIRST_NAMES = { "נועה", "יעל", "מיכל", "רונית", "אורית", "שירה", "תמר", "דנה",
+            "אביטל", "הילה", "משה", "דוד", "יוסי", "אבי", "איתי", "עומר", "גיל", "רון", "אורי", "נדב" };
+    private static final String[] LAST_NAMES = { "כהן", "לוי", "מזרחי", "פרץ", "ביטון", "אברהם", "פרידמן", "דהן",
+            "אזולאי", "שפירא", "גולן", "ברק", "אדלר", "חדד", "עמר", "רוזן", "קליין", "נחום", "טל", "שמעוני" };
+
+    private static final String[] STREETS = { "הרצל", "ויצמן", "הנשיא", "רוטשילד", "ז'בוטינסקי", "בן גוריון",
+            "הגפן", "התאנה", "הרימון", "האלון" };
+
+    private static final String[] PACKAGE_TYPES = { "איסוף", "אריזה", "משלוח" };
+    private static final DateTimeFormatter PAYBOX_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int WEEK_MINUTES = 7 * 24 * 60;
+
+    private static final double FEE = 6.0;
+    private static final int MAX_PRODUCTS = 24;
+
+    private WorkbookGenerator() {
+    }
+
+    /** One generated customer; the same in every file generated with the same seed. */
+    public static final class GeneratedCustomer {
+        private final String name;
+        private final List<String> phones;
+        private final String address;
+        private final boolean blankListed;
+
+        GeneratedCustomer(String name, List<String> phones, String address, boolean blankListed) {
+            this.name = name;
+            this.phones = phones;
+            this.address = address;
+            this.blankListed = blankListed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** 10-digit mobile numbers, as the orders export prints them. */
+        public List<String> getPhones() {
+            return phones;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        /** Named on the blank list, so the packing sheet blanks the block and Paybox skips it. */
+        public boolean isBlankListed() {
+            return blankListed;
+        }
+    }
+
+    public static List<String> productNames() {
+        List<String> names = new ArrayList<>();
+        for (Object[] p : PRODUCTS)
+            names.add((String) p[0]);
+        return names;
+    }
+
+    /** A distinct customer name for block {@code i}. */
+    public static String customerName(int i) {
+        int combos = FIRST_NAMES.length * LAST_NAMES.length;
+        String name = FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length];
+        return i < combos ? name : name + " " + (i / combos + 1);
+    }
+
+    /** The first phone of block {@code i}'s customer. */
+    public static String phone(int i, long seed) {
+        return mobile(random(seed, i, 0));
+    }
+
+    public static GeneratedCustomer customer(int i, long seed) {
+        String phone = phone(i, seed);
+        Random random = random(seed, i, 1);
+        List<String> blankList = ExcelProcess.DEFAULT_BLANK_CUSTOMERS;
+        boolean blankListed = !blankList.isEmpty() && random.nextInt(50) == 0;
+        String name = blankListed ? blankList.get(random.nextInt(blankList.size())) : customerName(i);
+        List<String> phones = random.nextInt(4) == 0 ? List.of(phone, mobile(random)) : List.of(phone);
+        String address = STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(120))
+                + (random.nextBoolean() ? " דירה " + (1 + random.nextInt(30)) : "");
+        return new GeneratedCustomer(name, phones, address, blankListed);
+    }
+
+    private static String mobile(Random random) {
+        return String.format(Locale.ROOT, "05%d%07d", random.nextInt(10), random.nextInt(10_000_000));
+    }
+
+    // independent streams per block and purpose, so any block can be regenerated on its own
+    private static Random random(long seed, int block, int stream) {
+        return new Random(seed * 0x9E3779B97F4A7C15L + block * 31L + stream);
+    }
+
+    /** An orders workbook with {@code blocks} customer blocks. */
+    public static byte[] ordersWorkbook(int blocks, long seed) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Sheet");
+            sheet.setRightToLeft(true);
+            int[] widths = { 5867, 3051, 3051, 1003, 5867, 3051, 3051 };
+            for (int c = 0; c < widths.length; c++)
+                sheet.setColumnWidth(c, widths[c]);
+            Styles styles = new Styles(workbook);
+
+            int rowNum = 0;
+            for (int b = 0; b < blocks; b += 2) {
+                List<String[]> left = blockRows(b, seed);
+                List<String[]> right = b + 1 < blocks ? blockRows(b + 1, seed) : List.of();
+                int height = Math.max(left.size(), right.size());
+                for (int i = 0; i < height; i++) {
+                    Row row = sheet.createRow(rowNum + i);
+                    if (i == 0)
+                        row.setHeightInPoints(66);
+                    fill(row, 0, left, i, styles);
+                    setCell(row, 3, "", styles.body);
+                    fill(row, 4, right, i, styles);
+                }
+                sheet.addMergedRegionUnsafe(new CellRangeAddress(rowNum, rowNum, 0, 2));
+                if (!right.isEmpty())
+                    sheet.addMergedRegionUnsafe(new CellRangeAddress(rowNum, rowNum, 4, 6));
+                rowNum += height;
+                sheet.setRowBreak(rowNum - 1);
+            }
+            return toBytes(workbook);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /** The rows of one customer block as product / quantity / price text. */
+    private static List<String[]> blockRows(int i, long seed) {
+        GeneratedCustomer customer = customer(i, seed);
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "\n" + customer.getName() + "\n" + ExcelProcess.ISUF_LOD + "\n"
+                + String.join(" ", customer.getPhones()) + " " });
+        rows.add(new String[] { "מוצר", "כמות ", "מחיר" });
+        Random random = random(seed, i, 2);
+        double total = 0;
+        int products = 3 + random.nextInt(MAX_PRODUCTS - 2);
+        for (int p = 0; p < products; p++) {
+            Object[] product = PRODUCTS[random.nextInt(PRODUCTS.length)];
+            boolean unit = (Boolean) product[1];
+            double quantity = unit ? 1 + random.nextInt(4) : (1 + random.nextInt(8)) * 0.5;
+            double price = Math.round(quantity * (Double) product[2] * 100) / 100.0;
+            total += price;
+            rows.add(new String[] { (String) product[0],
+                    unit ? String.format(Locale.ROOT, "%d יח'", (int) quantity)
+                            : String.format(Locale.ROOT, "%.3f ק\"ג", quantity),
+                    money(price) });
+        }
+        if (random.nextInt(20) == 0)
+            rows.add(new String[] { "אשמח לאריזה.", "", "" });
+        rows.add(new String[] { "תוספות", "", money(FEE) });
+        rows.add(new String[] { "סך הכל", "", money(total + FEE) });
+        rows.add(new String[] { "", "", "" });
+        return rows;
+    }
+
+    private static double blockTotal(int i, long seed) {
+        List<String[]> rows = blockRows(i, seed);
+        String total = rows.get(rows.size() - 2)[2];
+        return Double.parseDouble(total.substring(1));
+    }
+
+    private static String money(double amount) {
+        return String.format(Locale.ROOT, "₪%.2f", amount);
+    }
+
+    /**
+     * A Paybox export for the customers of an orders workbook of the same size and
+     * seed. This week's payments fall in the 7 days before {@code now}, well inside
+     * the upload's window; the {@code historyWeeks} older weeks start 16 days before
+     * {@code now}, always before its cutoff.
+     */
+    public static byte[] payboxExport(int blocks, long seed, LocalDateTime now, int historyWeeks)
+            throws IOException {
+        List<Object[]> payments = new ArrayList<>();
+        for (int i = 0; i < blocks; i++) {
+            GeneratedCustomer customer = customer(i, seed);
+            if (customer.isBlankListed())
+                continue;
+            Random random = random(seed, i, 3);
+            String phone = customer.getPhones().get(random.nextInt(customer.getPhones().size()));
+            double total = blockTotal(i, seed);
+            if (random.nextInt(100) < 85) {
+                LocalDateTime at = now.minusMinutes(1 + random.nextInt(WEEK_MINUTES));
+                // about half pick up, the rest split between packing and delivery
+                String packageType = PACKAGE_TYPES[random.nextInt(2) == 0 ? 0 : 1 + random.nextInt(2)];
+                payments.add(new Object[] { customer.getName(), phone, "payment", total, at, packageType });
+                if (random.nextInt(100) < 3)
+                    payments.add(new Object[] { customer.getName(), phone, "refund", -total,
+                            at.plusMinutes(1 + random.nextInt(60)), packageType });
+            }
+            for (int w = 0; w < historyWeeks; w++) {
+                if (random.nextInt(100) >= 70)
+                    continue;
+                LocalDateTime at = now.minusDays(16 + 7L * w).minusMinutes(random.nextInt(WEEK_MINUTES));
+                payments.add(new Object[] { customer.getName(), phone, "payment", total, at,
+                        PACKAGE_TYPES[random.nextInt(PACKAGE_TYPES.length)] });
+            }
+        }
+        // payers the customer list does not know
+        Random strangers = random(seed, -1, 4);
+        for (int k = 0; k < Math.max(1, blocks / 50); k++)
+            payments.add(new Object[] { customerName(blocks + k), "059" + String.format(Locale.ROOT, "%07d",
+                    strangers.nextInt(10_000_000)), "payment", 50.0, now.minusMinutes(1 + strangers.nextInt(WEEK_MINUTES)),
+                    PACKAGE_TYPES[strangers.nextInt(PACKAGE_TYPES.length)] });
+        payments.sort(Comparator.comparing(p -> (LocalDateTime) p[4]));
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            String[] titles = { "Name", "Phone", "Type", "Amount", "Date", "Note", "Package" };
+            for (int c = 0; c < titles.length; c++)
+                header.createCell(c).setCellValue(titles[c]);
+            int rowNum = 1;
+            for (Object[] p : payments) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue((String) p[0]);
+                // the export prints numbers in international form, 972-5XXXXXXXX
+                row.createCell(1).setCellValue("972-" + ((String) p[1]).substring(1));
+                row.createCell(2).setCellValue((String) p[2]);
+                row.createCell(3).setCellValue((Double) p[3]);
+                row.createCell(4).setCellValue(PAYBOX_DATE.format((LocalDateTime) p[4]));
+                row.createCell(5).setCellValue("");
+                row.createCell(6).setCellValue((String) p[5]);
+            }
+            return toBytes(workbook);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /** name,phone,address for every distinct customer, as the customers upload reads it. */
+    public static String customersCsv(int blocks, long seed) {
+        StringBuilder csv = new StringBuilder("name,phone,address\n");
+        Set<String> seen = new LinkedHashSet<>();
+        for (int i = 0; i < blocks; i++) {
+            GeneratedCustomer customer = customer(i, seed);
+            if (seen.add(customer.getName()))
+                csv.append(customer.getName()).append(',').append(customer.getPhones().get(0)).append(',')
+                        .append(customer.getAddress()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static byte[] toBytes(SXSSFWorkbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes orders_&lt;blocks&gt;_&lt;seed&gt;.xlsx, paybox_&lt;blocks&gt;_&lt;seed&gt;.xlsx
+     * and customers_&lt;blocks&gt;_&lt;seed&gt;.csv.
+     * Options: --blocks (1000), --seed (42), --history-weeks (8), --now
+     * (yyyy-MM-ddTHH:mm, default today at noon), --out (target/workbooks).
+     */
+    public static void main(String[] args) throws IOException {
+        int blocks = 1000;
+        long seed = 42;
+        int historyWeeks = 8;
+        LocalDateTime now = LocalDate.now().atTime(LocalTime.NOON);
+        Path out = Paths.get("target", "workbooks");
+        for (int a = 0; a + 1 < args.length; a += 2) {
+            String value = args[a + 1];
+            switch (args[a]) {
+                case "--blocks" -> blocks = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--history-weeks" -> historyWeeks = Integer.parseInt(value);
+                case "--now" -> now = LocalDateTime.parse(value);
+                case "--out" -> out = Paths.get(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[a]);
+            }
+        }
+        Files.createDirectories(out);
+        String suffix = "_" + blocks + "_" + seed;
+        Path orders = out.resolve("orders" + suffix + ".xlsx");
+        Path paybox = out.resolve("paybox" + suffix + ".xlsx");
+        Path customers = out.resolve("customers" + suffix + ".csv");
+        Files.write(orders, ordersWorkbook(blocks, seed));
+        Files.write(paybox, payboxExport(blocks, seed, now, historyWeeks));
+        Files.writeString(customers, customersCsv(blocks, seed), StandardCharsets.UTF_8);
+        System.out.println(orders.toAbsolutePath());
+        System.out.println(paybox.toAbsolutePath());
+        System.out.println(customers.toAbsolutePath());
+    }
+
+    private static void fill(Row row, int firstCol, List<String[]> block, int i, Styles styles) {
+        if (block.isEmpty())
+            return;
+        if (i >= block.size()) {
+            // padding under the shorter block of the pair
+            for (int c = 0; c < 3; c++)
+                row.createCell(firstCol + c).setCellStyle(styles.padding);
+            return;
+        }
+        String[] values = block.get(i);
+        if (i == 0) {
+            setCell(row, firstCol, values[0], styles.header);
+            row.createCell(firstCol + 1).setCellStyle(styles.header);
+            row.createCell(firstCol + 2).setCellStyle(styles.header);
+            return;
+        }
+        for (int c = 0; c < 3; c++)
+            setCell(row, firstCol + c, values[c], styles.body);
+    }
+
+    private static void setCell(Row row, int col, String value, CellStyle style) {
+        row.createCell(col).setCellValue(value);
+        row.getCell(col).setCellStyle(style);
+    }
+
+    private static final class Styles {
+        final CellStyle header;
+        final CellStyle body;
+        final CellStyle padding;
+
+        Styles(SXSSFWorkbook workbook) {
+            Font arial = workbook.createFont();
+            arial.setFontName("Arial");
+            arial.setFontHeightInPoints((short) 12);
+            body = workbook.createCellStyle();
+            body.setFont(arial);
+            body.setWrapText(true);
+            body.setAlignment(HorizontalAlignment.RIGHT);
+            header = workbook.createCellStyle();
+            header.cloneStyleFrom(body);
+            header.setFillPattern(FillPatternType.SPARSE_DOTS);
+            header.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            padding = workbook.createCellStyle();
+            padding.setFont(arial);
+        }
+    }
+}
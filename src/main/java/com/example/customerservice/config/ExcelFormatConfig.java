@@ -0,0 +1,29 @@
+package com.example.customerservice.config;
+
+import com.example.customerservice.util.ExcelProcess;
+import com.example.customerservice.util.MultiPatternMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The packing-sheet settings from configuration, handed to the formatter by
+ * whoever writes a packing sheet. orders.blank-customers is a comma-separated
+ * list of names whose blocks are blanked on the printed sheet; when unset
+ * {@link ExcelProcess#DEFAULT_BLANK_CUSTOMERS} is used.
+ */
+@Component
+public class ExcelFormatConfig {
+    private final MultiPatternMatcher blankCustomers;
+
+    public ExcelFormatConfig(@Value("${orders.blank-customers:}") List<String> blankCustomers) {
+        List<String> names = blankCustomers.stream().map(String::trim).filter(n -> !n.isEmpty()).toList();
+        this.blankCustomers = new MultiPatternMatcher(names.isEmpty() ? ExcelProcess.DEFAULT_BLANK_CUSTOMERS : names);
+    }
+
+    /** The names whose blocks are blanked, built into one matcher at startup. */
+    public MultiPatternMatcher getBlankCustomers() {
+        return blankCustomers;
+    }
+}
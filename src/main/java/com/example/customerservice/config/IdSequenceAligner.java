@@ -0,0 +1,39 @@
+package com.example.customerservice.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Customers, items, orders and order items take their ids from pooled sequences
+ * so Hibernate can batch their inserts. Tables created before that still hold
+ * identity-generated ids, so on startup each sequence is moved past the highest
+ * existing id (plus one allocation block) before anything is inserted.
+ */
+@Component
+public class IdSequenceAligner {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final String[][] SEQUENCES = {
+            { "customers", "id", "customers_seq" },
+            { "items", "id", "items_seq" },
+            { "orders", "order_id", "orders_seq" },
+            { "order_items", "id", "order_items_seq" } };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // the EntityManagerFactory dependency makes sure schema update has created the sequences
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        for (String[] s : SEQUENCES) {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(" + s[1] + "), 0) from " + s[0],
+                    Long.class);
+            long next = (maxId != null ? maxId : 0L) + ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("alter sequence " + s[2] + " restart with " + next);
+        }
+    }
+}
@@ -7,7 +7,8 @@ import java.time.LocalDate;
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long orderId;
 
@@ -26,6 +27,10 @@ public class Order {
     @Column(name = "selected_package")
     private Customer.PackageType selectedPackage;
 
+    /** Import-only: column group and row of the sheet header this order was parsed from. */
+    @Transient
+    private Long sourceKey;
+
     public Long getOrderId() {
         return orderId;
     }
@@ -73,4 +78,12 @@ public class Order {
     public void setSelectedPackage(Customer.PackageType selectedPackage) {
         this.selectedPackage = selectedPackage;
     }
+
+    public Long getSourceKey() {
+        return sourceKey;
+    }
+
+    public void setSourceKey(Long sourceKey) {
+        this.sourceKey = sourceKey;
+    }
 }
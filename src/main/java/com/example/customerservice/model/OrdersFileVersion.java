@@ -0,0 +1,101 @@
+package com.example.customerservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One version of the printable orders workbook in uploaded_excels. The id is the
+ * version number; a Paybox run's version has the version it rewrote as parent,
+ * an orders upload starts a new line with no parent.
+ */
+@Entity
+@Table(name = "orders_file_versions")
+public class OrdersFileVersion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_file_versions_seq")
+    @SequenceGenerator(name = "orders_file_versions_seq", sequenceName = "orders_file_versions_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    /** "upload", "paybox", or "adopted" for a file found in the folder before the manifest existed. */
+    private String source;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    private long sizeBytes;
+
+    @Column(length = 64)
+    private String sha256;
+
+    private LocalDateTime createdAt;
+
+    /** Stored gzipped as fileName + ".gz". */
+    private boolean compressed;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.customerservice.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** SHA-256 fingerprint of an orders workbook that was imported. */
+@Entity
+@Table(name = "uploaded_workbooks")
+public class UploadedWorkbook {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uploaded_workbooks_seq")
+    @SequenceGenerator(name = "uploaded_workbooks_seq", sequenceName = "uploaded_workbooks_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    private String fileName;
+
+    private long sizeBytes;
+
+    private LocalDateTime importedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getImportedAt() {
+        return importedAt;
+    }
+
+    public void setImportedAt(LocalDateTime importedAt) {
+        this.importedAt = importedAt;
+    }
+}
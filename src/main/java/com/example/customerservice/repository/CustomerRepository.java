@@ -2,6 +2,11 @@ package com.example.customerservice.repository;
 
 import com.example.customerservice.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+
+    @Query("select c from Customer c where lower(c.name) in :names order by c.id")
+    java.util.List<Customer> findByLowerNameIn(@Param("names") java.util.Collection<String> names);
 }
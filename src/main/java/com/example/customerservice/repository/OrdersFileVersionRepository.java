@@ -0,0 +1,14 @@
+package com.example.customerservice.repository;
+
+import com.example.customerservice.model.OrdersFileVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface OrdersFileVersionRepository extends JpaRepository<OrdersFileVersion, Long> {
+
+    Optional<OrdersFileVersion> findTopByOrderByIdDesc();
+
+    List<OrdersFileVersion> findAllByOrderByIdDesc();
+}
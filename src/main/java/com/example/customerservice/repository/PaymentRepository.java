@@ -0,0 +1,28 @@
+package com.example.customerservice.repository;
+
+import com.example.customerservice.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /** The newest payment recorded so far; everything older is already stored. */
+    @Query("select max(p.paidAt) from Payment p")
+    LocalDateTime findHighWaterMark();
+
+    List<Payment> findByPaidAtGreaterThanEqual(LocalDateTime paidAt);
+
+    /** Payments outlive their customer; they keep the phone and lose the link. */
+    @Modifying
+    @Query("update Payment p set p.customer = null where p.customer.id = :customerId")
+    int unlinkCustomer(@Param("customerId") Long customerId);
+
+    @Modifying
+    @Query("update Payment p set p.customer = null where p.customer is not null")
+    int unlinkAllCustomers();
+}
@@ -0,0 +1,13 @@
+package com.example.customerservice.repository;
+
+import com.example.customerservice.model.UploadedWorkbook;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface UploadedWorkbookRepository extends JpaRepository<UploadedWorkbook, Long> {
+
+    Optional<UploadedWorkbook> findBySha256(String sha256);
+
+    Optional<UploadedWorkbook> findTopByOrderByImportedAtDesc();
+}
@@ -2,23 +2,56 @@ package com.example.customerservice.service;
 
 import com.example.customerservice.model.Customer;
 import com.example.customerservice.repository.CustomerRepository;
+import com.example.customerservice.repository.PaymentRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class CustomerService {
     private final CustomerRepository repository;
+    private final PaymentRepository paymentRepository;
 
-    public CustomerService(CustomerRepository repository) {
+    public CustomerService(CustomerRepository repository, PaymentRepository paymentRepository) {
         this.repository = repository;
+        this.paymentRepository = paymentRepository;
     }
 
     public List<Customer> findAll() {
         return repository.findAll();
     }
 
+    /**
+     * Resolves many customer names with a single IN query. The result is keyed by
+     * the lower-cased name; when several customers share a name the one with the
+     * lowest id wins, like the first match of a findAll() scan.
+     */
+    public Map<String, Customer> findByNamesIgnoreCase(Collection<String> names) {
+        Map<String, Customer> byName = new HashMap<>();
+        if (names == null || names.isEmpty())
+            return byName;
+        Set<String> keys = new HashSet<>();
+        for (String name : names) {
+            if (name != null)
+                keys.add(name.toLowerCase(Locale.ROOT));
+        }
+        if (keys.isEmpty())
+            return byName;
+        for (Customer c : repository.findByLowerNameIn(keys)) {
+            if (c.getName() != null)
+                byName.putIfAbsent(c.getName().toLowerCase(Locale.ROOT), c);
+        }
+        return byName;
+    }
+
     public Optional<Customer> findById(Long id) {
         return repository.findById(id);
     }
@@ -27,11 +60,15 @@ public class CustomerService {
         return repository.save(c);
     }
 
+    @Transactional
     public void deleteById(Long id) {
+        paymentRepository.unlinkCustomer(id);
         repository.deleteById(id);
     }
 
+    @Transactional
     public void deleteAll() {
+        paymentRepository.unlinkAllCustomers();
         repository.deleteAll();
     }
 }
@@ -0,0 +1,92 @@
+package com.example.customerservice.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one orders-workbook import. Updated by the worker thread and read
+ * by any number of status polls, so all mutable state is volatile/atomic.
+ */
+public class ImportJob {
+
+    public enum Stage {
+        QUEUED,
+        PARSING,
+        SAVING,
+        DONE,
+        FAILED
+    }
+
+    private final String id;
+    private final String sha256;
+    private final Instant createdAt = Instant.now();
+    private final AtomicInteger rowsProcessed = new AtomicInteger();
+    private volatile Stage stage = Stage.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String message;
+    private final ImportReport report;
+
+    public ImportJob(String id, String sha256, ImportReport report) {
+        this.id = id;
+        this.sha256 = sha256;
+        this.report = report;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** SHA-256 of the uploaded workbook. */
+    public String getSha256() {
+        return sha256;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public void setStage(Stage stage) {
+        this.stage = stage;
+        if (stage == Stage.DONE || stage == Stage.FAILED)
+            this.finishedAt = Instant.now();
+    }
+
+    public int getRowsProcessed() {
+        return rowsProcessed.get();
+    }
+
+    public void rowProcessed() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** Milliseconds since the job was submitted, frozen once it finishes. */
+    public long getElapsedMillis() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        return Duration.between(createdAt, end).toMillis();
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public ImportReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.UploadedWorkbook;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs orders-workbook imports off the servlet thread. Uploads are queued on a
+ * bounded worker pool and tracked by job id; status reads never consume or
+ * remove a job, so it can be polled from any number of tabs until it expires.
+ */
+@Service
+public class ImportJobService {
+    // one worker: every import replaces the same tables, so running two at once gains nothing
+    private static final int WORKERS = 1;
+    private static final int MAX_QUEUED = 10;
+    private static final Duration FINISHED_JOB_TTL = Duration.ofHours(1);
+    private static final DateTimeFormatter IMPORTED_AT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final OrdersUploadService ordersUploadService;
+    private final UploadedWorkbookService uploadedWorkbookService;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED), r -> new Thread(r, "orders-import"));
+
+    public ImportJobService(OrdersUploadService ordersUploadService,
+            UploadedWorkbookService uploadedWorkbookService) {
+        this.ordersUploadService = ordersUploadService;
+        this.uploadedWorkbookService = uploadedWorkbookService;
+    }
+
+    /**
+     * Queues an import of the uploaded workbook and returns its job right away.
+     * A dry run computes the full report and rolls back instead of committing,
+     * and does not store a formatted copy.
+     *
+     * Unless {@code force} is set, a workbook identical to the last one imported
+     * gets a job that is already DONE, and one identical to an import still
+     * queued or running gets that job back, so re-uploads cost only the hash.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public synchronized ImportJob submit(UploadedWorkbookService.HashedUpload upload, String fileName,
+            boolean merge, boolean dryRun, boolean force) {
+        evictExpired();
+        String sha256 = upload.getSha256();
+        if (!dryRun && !force) {
+            Optional<ImportJob> inFlight = jobs.values().stream()
+                    .filter(j -> !j.isFinished() && !j.getReport().isDryRun() && sha256.equals(j.getSha256()))
+                    .findFirst();
+            if (inFlight.isPresent()) {
+                upload.delete();
+                return inFlight.get();
+            }
+            Optional<UploadedWorkbook> previous = uploadedWorkbookService.findLatestIfSame(sha256);
+            if (previous.isPresent()) {
+                upload.delete();
+                return alreadyImported(sha256, previous.get());
+            }
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), sha256, new ImportReport(dryRun));
+        jobs.put(job.getId(), job);
+        CompletableFuture<Void> imported;
+        try {
+            imported = CompletableFuture.runAsync(() -> run(job, upload, fileName, merge, dryRun), workers);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            upload.delete();
+            throw e;
+        }
+        CompletableFuture<?> copied = dryRun ? CompletableFuture.completedFuture(null)
+                : ordersUploadService.saveFormattedCopyAsync(upload.getFile(), job.getReport());
+        // both read the spooled upload
+        CompletableFuture.allOf(imported, copied).whenComplete((done, ex) -> upload.delete());
+        return job;
+    }
+
+    private ImportJob alreadyImported(String sha256, UploadedWorkbook previous) {
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), sha256, new ImportReport(false));
+        job.setMessage("Already imported: identical to " + previous.getFileName() + " imported at "
+                + previous.getImportedAt().format(IMPORTED_AT_FORMAT) + ". Nothing was changed.");
+        job.setStage(ImportJob.Stage.DONE);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    public Optional<ImportJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void run(ImportJob job, UploadedWorkbookService.HashedUpload upload, String fileName, boolean merge,
+            boolean dryRun) {
+        try {
+            LocalDateTime uploadedAt = LocalDateTime.now();
+            ImportSummary summary = ordersUploadService.importOrders(upload.getFile(), uploadedAt, merge,
+                    dryRun, job);
+            if (!dryRun)
+                uploadedWorkbookService.recordImport(upload.getSha256(), fileName, upload.getSize(), uploadedAt);
+            job.setMessage((dryRun ? "Dry run, nothing saved: " : "Excel processed and data imported: ") + summary);
+            job.setStage(ImportJob.Stage.DONE);
+        } catch (Exception ex) {
+            job.setMessage("Error processing file: " + ex.getMessage());
+            job.setStage(ImportJob.Stage.FAILED);
+        }
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_TTL);
+        jobs.values().removeIf(j -> j.isFinished() && j.getFinishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
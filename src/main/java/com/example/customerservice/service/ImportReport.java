@@ -0,0 +1,188 @@
+package com.example.customerservice.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * What one import read, what it would write and where its time went. Filled in
+ * by the import worker; the formatted-copy stage is added from the file-writer
+ * thread and may arrive after the import itself has finished.
+ */
+public class ImportReport {
+
+    /** Wall-clock time and heap allocated by the thread that ran one stage. */
+    public static class StageTiming {
+        private final String stage;
+        private final long millis;
+        private final long allocatedBytes;
+
+        StageTiming(String stage, long millis, long allocatedBytes) {
+            this.stage = stage;
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /** -1 when the JVM does not support per-thread allocation counters. */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+
+    private final boolean dryRun;
+    private final List<StageTiming> stages = new CopyOnWriteArrayList<>();
+    private volatile int rowsRead;
+    private volatile int customersCreated;
+    private volatile int customersReused;
+    private volatile int itemsCreated;
+    private volatile int itemRowsMerged;
+    private volatile Map<String, Integer> itemRowCounts = Map.of();
+    private volatile int ordersParsed;
+    private volatile int orderItemsParsed;
+    private volatile Map<String, Integer> skippedRows = Map.of();
+    private volatile List<String> skippedSamples = List.of();
+    private volatile ImportSummary summary;
+
+    public ImportReport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    /** Runs {@code work} on the calling thread and records it as a stage. */
+    public <T> T time(String stage, Callable<T> work) throws Exception {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long allocatedAfter = allocatedBytes();
+            stages.add(new StageTiming(stage, millis,
+                    allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore));
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()
+                && sunBean.isThreadAllocatedMemoryEnabled())
+            return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    /** True when the import was rolled back after computing its summary. */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public List<StageTiming> getStages() {
+        return stages;
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(int rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    /** Distinct sheet customers with no stored match. */
+    public int getCustomersCreated() {
+        return customersCreated;
+    }
+
+    public void setCustomersCreated(int customersCreated) {
+        this.customersCreated = customersCreated;
+    }
+
+    /** Distinct sheet customers matched to a stored customer by name. */
+    public int getCustomersReused() {
+        return customersReused;
+    }
+
+    public void setCustomersReused(int customersReused) {
+        this.customersReused = customersReused;
+    }
+
+    /** Distinct items in the sheet, before matching against stored items. */
+    public int getItemsCreated() {
+        return itemsCreated;
+    }
+
+    public void setItemsCreated(int itemsCreated) {
+        this.itemsCreated = itemsCreated;
+    }
+
+    /** Product rows folded into an item already seen earlier in the sheet. */
+    public int getItemRowsMerged() {
+        return itemRowsMerged;
+    }
+
+    public void setItemRowsMerged(int itemRowsMerged) {
+        this.itemRowsMerged = itemRowsMerged;
+    }
+
+    /** Item name to number of product rows that resolved to it, in sheet order. */
+    public Map<String, Integer> getItemRowCounts() {
+        return itemRowCounts;
+    }
+
+    public void setItemRowCounts(Map<String, Integer> itemRowCounts) {
+        this.itemRowCounts = Collections.unmodifiableMap(new LinkedHashMap<>(itemRowCounts));
+    }
+
+    public int getOrdersParsed() {
+        return ordersParsed;
+    }
+
+    public void setOrdersParsed(int ordersParsed) {
+        this.ordersParsed = ordersParsed;
+    }
+
+    public int getOrderItemsParsed() {
+        return orderItemsParsed;
+    }
+
+    public void setOrderItemsParsed(int orderItemsParsed) {
+        this.orderItemsParsed = orderItemsParsed;
+    }
+
+    /** Reason to number of rows that produced no order item. */
+    public Map<String, Integer> getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(Map<String, Integer> skippedRows) {
+        this.skippedRows = Collections.unmodifiableMap(new LinkedHashMap<>(skippedRows));
+    }
+
+    public List<String> getSkippedSamples() {
+        return skippedSamples;
+    }
+
+    public void setSkippedSamples(List<String> skippedSamples) {
+        this.skippedSamples = List.copyOf(skippedSamples);
+    }
+
+    /** Rows written (or, on a dry run, that would have been written) per table. */
+    public ImportSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(ImportSummary summary) {
+        this.summary = summary;
+    }
+}
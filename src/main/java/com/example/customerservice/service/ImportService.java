@@ -7,7 +7,18 @@ import com.example.customerservice.model.OrderItem;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class ImportService {
@@ -25,7 +36,9 @@ public class ImportService {
     }
 
     @Transactional
-    public void replaceAll(List<Customer> customers, List<Item> items, List<Order> orders, List<OrderItem> orderItems) {
+    public ImportSummary replaceAll(List<Customer> customers, List<Item> items, List<Order> orders,
+            List<OrderItem> orderItems) {
+        ImportSummary summary = new ImportSummary();
         // delete existing using in-batch deletes (direct DB deletes) in correct order
         orderItemService.deleteAllOrderItemsInBatch();
         orderService.deleteAllOrdersInBatch();
@@ -53,9 +66,8 @@ public class ImportService {
             }
         }
 
-        java.util.Map<Integer, Order> persistedOrdersByIndex = new java.util.HashMap<>();
+        java.util.Map<Long, Order> persistedOrdersByKey = new java.util.HashMap<>();
         if (orders != null) {
-            int idx = 0;
             for (Order o : orders) {
                 // remap customer reference to persisted customer if available
                 if (o.getCustomer() != null && o.getCustomer().getName() != null) {
@@ -64,7 +76,8 @@ public class ImportService {
                         o.setCustomer(pc);
                 }
                 Order po = orderService.save(o);
-                persistedOrdersByIndex.put(idx++, po);
+                if (o.getSourceKey() != null)
+                    persistedOrdersByKey.put(o.getSourceKey(), po);
             }
         }
 
@@ -76,24 +89,202 @@ public class ImportService {
                     if (pi != null)
                         oi.setItem(pi);
                 }
-                // Orders were created in same sequence as parsed - find matching persisted
-                // order by object equality or by position
-                // If order reference has no id, try to match by customer + date
-                if (oi.getOrder() != null && oi.getOrder().getOrderId() == null) {
-                    // try naive match: find order by customer and date
-                    for (Order persisted : persistedOrdersByIndex.values()) {
-                        if (persisted.getCustomer() != null && oi.getOrder().getCustomer() != null
-                                && persisted.getCustomer().getName() != null
-                                && oi.getOrder().getCustomer().getName() != null
-                                && persisted.getCustomer().getName()
-                                        .equalsIgnoreCase(oi.getOrder().getCustomer().getName())) {
-                            oi.setOrder(persisted);
-                            break;
-                        }
-                    }
+                // relink by the sheet position the order was parsed from, so two orders
+                // of the same customer can never be confused
+                if (oi.getOrder() != null && oi.getOrder().getSourceKey() != null) {
+                    Order po = persistedOrdersByKey.get(oi.getOrder().getSourceKey());
+                    if (po != null)
+                        oi.setOrder(po);
                 }
             }
             orderItemService.saveAll(orderItems);
         }
+
+        summary.setCustomersInserted(customers != null ? customers.size() : 0);
+        summary.setItemsInserted(items != null ? items.size() : 0);
+        summary.setOrdersInserted(orders != null ? orders.size() : 0);
+        summary.setOrderItemsInserted(orderItems != null ? orderItems.size() : 0);
+        return summary;
+    }
+
+    /**
+     * Brings items/orders/order items to the same end state as
+     * {@link #replaceAll}, but only writes the rows that differ. Parsed rows are
+     * matched to stored ones by natural key: items by lower-cased name, orders by
+     * customer and their place among that customer's orders in the sheet (the
+     * n-th parsed order of a customer matches the n-th stored one), order items
+     * by item within their order. Matched items keep their id and availability
+     * flag; matched orders keep their id and package fields and take the new
+     * date and upload time.
+     *
+     * The order date is the day of the upload, so it is not part of the key: a
+     * corrected workbook re-uploaded on a later day still matches the orders it
+     * replaces, and only its changed cells are written.
+     */
+    @Transactional
+    public ImportSummary mergeAll(List<Customer> customers, List<Item> items, List<Order> orders,
+            List<OrderItem> orderItems) {
+        ImportSummary summary = new ImportSummary();
+
+        // customers: parsed list only holds names not found in the DB
+        if (customers != null) {
+            for (Customer c : customers)
+                customerService.save(c);
+            summary.setCustomersInserted(customers.size());
+        }
+
+        // items by name
+        List<Item> allStoredItems = itemService.getAllItems();
+        Map<String, Item> storedItems = new HashMap<>();
+        for (Item stored : allStoredItems) {
+            if (stored.getName() != null)
+                storedItems.putIfAbsent(itemKey(stored), stored);
+        }
+        Map<Item, Item> itemTarget = new IdentityHashMap<>();
+        List<Item> itemsToSave = new ArrayList<>();
+        Set<Long> keptItemIds = new HashSet<>();
+        if (items != null) {
+            for (Item parsed : items) {
+                Item stored = storedItems.get(itemKey(parsed));
+                if (stored == null) {
+                    itemsToSave.add(parsed);
+                    itemTarget.put(parsed, parsed);
+                    summary.setItemsInserted(summary.getItemsInserted() + 1);
+                    continue;
+                }
+                keptItemIds.add(stored.getId());
+                itemTarget.put(parsed, stored);
+                if (stored.getPrice() != parsed.getPrice() || stored.getType() != parsed.getType()
+                        || !stored.getName().equals(parsed.getName())) {
+                    stored.setName(parsed.getName());
+                    stored.setPrice(parsed.getPrice());
+                    stored.setType(parsed.getType());
+                    itemsToSave.add(stored);
+                    summary.setItemsUpdated(summary.getItemsUpdated() + 1);
+                }
+            }
+        }
+
+        // orders by customer + occurrence
+        Map<String, Order> storedOrders = new HashMap<>();
+        Map<String, Integer> seen = new HashMap<>();
+        List<Order> allStoredOrders = orderService.findAll();
+        allStoredOrders.sort(Comparator.comparing(Order::getOrderId));
+        for (Order stored : allStoredOrders) {
+            String base = orderKey(stored);
+            int n = seen.merge(base, 1, Integer::sum);
+            storedOrders.put(base + "#" + n, stored);
+        }
+        seen.clear();
+        Map<Long, Order> orderTarget = new HashMap<>();
+        List<Order> ordersToInsert = new ArrayList<>();
+        List<Order> ordersToUpdate = new ArrayList<>();
+        Set<Long> keptOrderIds = new HashSet<>();
+        if (orders != null) {
+            for (Order parsed : orders) {
+                String base = orderKey(parsed);
+                int n = seen.merge(base, 1, Integer::sum);
+                Order stored = storedOrders.get(base + "#" + n);
+                Order target = stored != null ? stored : parsed;
+                if (stored == null) {
+                    ordersToInsert.add(parsed);
+                } else {
+                    keptOrderIds.add(stored.getOrderId());
+                    if (!Objects.equals(stored.getDate(), parsed.getDate())
+                            || !Objects.equals(stored.getUploadedAt(), parsed.getUploadedAt())) {
+                        stored.setDate(parsed.getDate());
+                        stored.setUploadedAt(parsed.getUploadedAt());
+                        ordersToUpdate.add(stored);
+                    }
+                }
+                if (parsed.getSourceKey() != null)
+                    orderTarget.put(parsed.getSourceKey(), target);
+            }
+        }
+        summary.setOrdersInserted(ordersToInsert.size());
+        summary.setOrdersUpdated(ordersToUpdate.size());
+
+        // order items of kept orders, grouped by order then item
+        Map<Long, Map<Long, Deque<OrderItem>>> storedLines = new HashMap<>();
+        List<Long> orderItemIdsToDelete = new ArrayList<>();
+        for (OrderItem stored : orderItemService.findAll()) {
+            Long orderId = stored.getOrder() != null ? stored.getOrder().getOrderId() : null;
+            Long itemId = stored.getItem() != null ? stored.getItem().getId() : null;
+            if (orderId == null || itemId == null || !keptOrderIds.contains(orderId)
+                    || !keptItemIds.contains(itemId)) {
+                orderItemIdsToDelete.add(stored.getId());
+                continue;
+            }
+            storedLines.computeIfAbsent(orderId, k -> new HashMap<>())
+                    .computeIfAbsent(itemId, k -> new ArrayDeque<>()).add(stored);
+        }
+        List<OrderItem> orderItemsToSave = new ArrayList<>();
+        if (orderItems != null) {
+            for (OrderItem parsed : orderItems) {
+                Order order = parsed.getOrder().getSourceKey() != null
+                        ? orderTarget.getOrDefault(parsed.getOrder().getSourceKey(), parsed.getOrder())
+                        : parsed.getOrder();
+                Item item = itemTarget.getOrDefault(parsed.getItem(), parsed.getItem());
+                OrderItem stored = null;
+                if (order.getOrderId() != null && item.getId() != null) {
+                    Deque<OrderItem> candidates = storedLines.getOrDefault(order.getOrderId(), Map.of())
+                            .get(item.getId());
+                    stored = candidates != null ? candidates.poll() : null;
+                }
+                if (stored == null) {
+                    parsed.setOrder(order);
+                    parsed.setItem(item);
+                    orderItemsToSave.add(parsed);
+                    summary.setOrderItemsInserted(summary.getOrderItemsInserted() + 1);
+                } else if (stored.getAmount() != parsed.getAmount()
+                        || stored.getTotalPrice() != parsed.getTotalPrice()) {
+                    stored.setAmount(parsed.getAmount());
+                    stored.setTotalPrice(parsed.getTotalPrice());
+                    orderItemsToSave.add(stored);
+                    summary.setOrderItemsUpdated(summary.getOrderItemsUpdated() + 1);
+                }
+            }
+        }
+        // stored lines of kept orders that no parsed row claimed
+        for (Map<Long, Deque<OrderItem>> byItem : storedLines.values())
+            for (Deque<OrderItem> left : byItem.values())
+                for (OrderItem stale : left)
+                    orderItemIdsToDelete.add(stale.getId());
+
+        List<Long> orderIdsToDelete = new ArrayList<>();
+        for (Order stored : allStoredOrders) {
+            if (!keptOrderIds.contains(stored.getOrderId()))
+                orderIdsToDelete.add(stored.getOrderId());
+        }
+        List<Long> itemIdsToDelete = new ArrayList<>();
+        // includes stored items sharing a name with a matched one; only the first is kept
+        for (Item stored : allStoredItems) {
+            if (!keptItemIds.contains(stored.getId()))
+                itemIdsToDelete.add(stored.getId());
+        }
+
+        // deletes child-first, then inserts/updates parent-first
+        orderItemService.deleteAllByIdInBatch(orderItemIdsToDelete);
+        orderService.deleteAllByIdInBatch(orderIdsToDelete);
+        itemService.deleteAllByIdInBatch(itemIdsToDelete);
+        itemService.saveAll(itemsToSave);
+        orderService.saveAll(ordersToInsert);
+        orderService.saveAll(ordersToUpdate);
+        orderItemService.saveAll(orderItemsToSave);
+
+        summary.setOrderItemsDeleted(orderItemIdsToDelete.size());
+        summary.setOrdersDeleted(orderIdsToDelete.size());
+        summary.setItemsDeleted(itemIdsToDelete.size());
+        return summary;
+    }
+
+    private static String itemKey(Item item) {
+        return item.getName() == null ? "" : item.getName().toLowerCase(Locale.ROOT);
+    }
+
+    private static String orderKey(Order order) {
+        Customer c = order.getCustomer();
+        return c == null ? "" : c.getId() != null ? "id:" + c.getId()
+                : "name:" + (c.getName() == null ? "" : c.getName().toLowerCase(Locale.ROOT));
     }
 }
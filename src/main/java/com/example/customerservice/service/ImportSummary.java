@@ -0,0 +1,116 @@
+package com.example.customerservice.service;
+
+/**
+ * Row counts written by one import, per table and operation.
+ */
+public class ImportSummary {
+    private int customersInserted;
+    private int itemsInserted;
+    private int itemsUpdated;
+    private int itemsDeleted;
+    private int ordersInserted;
+    private int ordersUpdated;
+    private int ordersDeleted;
+    private int orderItemsInserted;
+    private int orderItemsUpdated;
+    private int orderItemsDeleted;
+    private int itemRowsMerged;
+
+    public int getCustomersInserted() {
+        return customersInserted;
+    }
+
+    public void setCustomersInserted(int customersInserted) {
+        this.customersInserted = customersInserted;
+    }
+
+    public int getItemsInserted() {
+        return itemsInserted;
+    }
+
+    public void setItemsInserted(int itemsInserted) {
+        this.itemsInserted = itemsInserted;
+    }
+
+    public int getItemsUpdated() {
+        return itemsUpdated;
+    }
+
+    public void setItemsUpdated(int itemsUpdated) {
+        this.itemsUpdated = itemsUpdated;
+    }
+
+    public int getItemsDeleted() {
+        return itemsDeleted;
+    }
+
+    public void setItemsDeleted(int itemsDeleted) {
+        this.itemsDeleted = itemsDeleted;
+    }
+
+    public int getOrdersInserted() {
+        return ordersInserted;
+    }
+
+    public void setOrdersInserted(int ordersInserted) {
+        this.ordersInserted = ordersInserted;
+    }
+
+    public int getOrdersUpdated() {
+        return ordersUpdated;
+    }
+
+    public void setOrdersUpdated(int ordersUpdated) {
+        this.ordersUpdated = ordersUpdated;
+    }
+
+    public int getOrdersDeleted() {
+        return ordersDeleted;
+    }
+
+    public void setOrdersDeleted(int ordersDeleted) {
+        this.ordersDeleted = ordersDeleted;
+    }
+
+    public int getOrderItemsInserted() {
+        return orderItemsInserted;
+    }
+
+    public void setOrderItemsInserted(int orderItemsInserted) {
+        this.orderItemsInserted = orderItemsInserted;
+    }
+
+    public int getOrderItemsUpdated() {
+        return orderItemsUpdated;
+    }
+
+    public void setOrderItemsUpdated(int orderItemsUpdated) {
+        this.orderItemsUpdated = orderItemsUpdated;
+    }
+
+    public int getOrderItemsDeleted() {
+        return orderItemsDeleted;
+    }
+
+    public void setOrderItemsDeleted(int orderItemsDeleted) {
+        this.orderItemsDeleted = orderItemsDeleted;
+    }
+
+    /** Product rows folded into an item already seen earlier in the same sheet. */
+    public int getItemRowsMerged() {
+        return itemRowsMerged;
+    }
+
+    public void setItemRowsMerged(int itemRowsMerged) {
+        this.itemRowsMerged = itemRowsMerged;
+    }
+
+    @Override
+    public String toString() {
+        return "customers +" + customersInserted
+                + ", items +" + itemsInserted + " ~" + itemsUpdated + " -" + itemsDeleted
+                + ", orders +" + ordersInserted + " ~" + ordersUpdated + " -" + ordersDeleted
+                + ", order items +" + orderItemsInserted + " ~" + orderItemsUpdated + " -" + orderItemsDeleted
+                + " (" + itemRowsMerged + " product rows merged into existing items)";
+    }
+}
@@ -51,6 +51,15 @@ public class ItemService {
         repository.deleteAllInBatch();
     }
 
+    public List<Item> saveAll(List<Item> items) {
+        return repository.saveAll(items);
+    }
+
+    public void deleteAllByIdInBatch(java.util.Collection<Long> ids) {
+        if (!ids.isEmpty())
+            repository.deleteAllByIdInBatch(ids);
+    }
+
     @Transactional
     public void setAllAvailable(boolean available) {
         List<Item> items = repository.findAll();
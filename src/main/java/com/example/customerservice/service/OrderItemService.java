@@ -44,4 +44,9 @@ public class OrderItemService {
     public void deleteAllOrderItemsInBatch() {
         repository.deleteAllInBatch();
     }
+
+    public void deleteAllByIdInBatch(java.util.Collection<Long> ids) {
+        if (!ids.isEmpty())
+            repository.deleteAllByIdInBatch(ids);
+    }
 }
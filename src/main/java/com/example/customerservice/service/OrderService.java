@@ -39,6 +39,15 @@ public class OrderService {
         repository.deleteAllInBatch();
     }
 
+    public List<Order> saveAll(List<Order> orders) {
+        return repository.saveAll(orders);
+    }
+
+    public void deleteAllByIdInBatch(java.util.Collection<Long> ids) {
+        if (!ids.isEmpty())
+            repository.deleteAllByIdInBatch(ids);
+    }
+
     public java.util.List<com.example.customerservice.model.Customer> findDistinctCustomersByNameContaining(
             String name) {
         return repository.findDistinctCustomersByCustomerNameContainingIgnoreCase(name);
@@ -0,0 +1,260 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.OrdersFileVersion;
+import com.example.customerservice.repository.OrdersFileVersionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The versions of the printable orders workbook in orders.files.folder
+ * (uploaded_excels by default), listed in the orders_file_versions manifest
+ * instead of being found by listing the folder. Every version is written through
+ * {@link #write}, which records its parent, size and SHA-256, so the latest one
+ * is a field read and nothing goes by file timestamps.
+ *
+ * A context started on an empty manifest adopts whatever the folder holds and
+ * applies retention to it, so one started against a throwaway database (a
+ * benchmark, an in-memory H2) must point orders.files.folder somewhere of its
+ * own.
+ *
+ * After each write a background thread applies retention: orders.files.keep
+ * versions are kept, and all but the newest orders.files.keep-uncompressed of
+ * them are gzipped. An xlsx is already a zip archive, so this saves little per
+ * file; it keeps the history from growing by a full copy on every Paybox run.
+ */
+@Service
+public class OrdersFileStore {
+    /** Writes the content of a new version. */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(OutputStream out) throws Exception;
+    }
+
+    private final OrdersFileVersionRepository repository;
+    private final File folder;
+    private final int keep;
+    private final int keepUncompressed;
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "orders-file-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile OrdersFileVersion latest;
+
+    public OrdersFileStore(OrdersFileVersionRepository repository,
+            @Value("${orders.files.folder:uploaded_excels}") String folder,
+            @Value("${orders.files.keep:5}") int keep,
+            @Value("${orders.files.keep-uncompressed:2}") int keepUncompressed) {
+        this.repository = repository;
+        this.folder = new File(folder);
+        // the latest version is always kept, and kept as an xlsx
+        this.keep = Math.max(1, keep);
+        this.keepUncompressed = Math.max(1, keepUncompressed);
+    }
+
+    /**
+     * Loads the latest version from the manifest, dropping entries whose file is
+     * gone. A folder from before the manifest existed is adopted as it is, its
+     * files taken as one line of versions in the order of their timestamps.
+     */
+    @PostConstruct
+    public synchronized void start() throws IOException {
+        Files.createDirectories(folder.toPath());
+        List<OrdersFileVersion> versions = repository.findAllByOrderByIdDesc();
+        if (versions.isEmpty()) {
+            adoptFolder();
+        } else {
+            for (OrdersFileVersion version : versions) {
+                if (fileOf(version).exists()) {
+                    latest = version;
+                    break;
+                }
+                repository.delete(version);
+            }
+        }
+        maintenance.execute(this::maintain);
+    }
+
+    /** The latest version, or null when there is none. */
+    public OrdersFileVersion getLatest() {
+        return latest;
+    }
+
+    /** Where a version is stored; items_orders_*.xlsx.gz once compressed. */
+    public File fileOf(OrdersFileVersion version) {
+        return new File(folder, version.isCompressed() ? version.getFileName() + ".gz" : version.getFileName());
+    }
+
+    /** The xlsx bytes of a version, compressed or not. */
+    public InputStream open(OrdersFileVersion version) throws IOException {
+        InputStream in = new FileInputStream(fileOf(version));
+        return version.isCompressed() ? new GZIPInputStream(in) : in;
+    }
+
+    /**
+     * Stores a new version as items_orders_<timestamp>.xlsx and makes it the
+     * latest. The content is written under a temporary name and moved into place,
+     * so readers never see a partial file; when writing fails nothing is stored.
+     *
+     * @param parent the version the content was derived from, or null
+     * @param source what produced it, "upload" or "paybox"
+     */
+    public synchronized OrdersFileVersion write(OrdersFileVersion parent, String source, Content content)
+            throws Exception {
+        String fileName = newFileName();
+        File file = new File(folder, fileName);
+        File tmpFile = new File(folder, fileName + ".tmp");
+        MessageDigest sha256 = sha256();
+        try (OutputStream out = new DigestOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile)), sha256)) {
+            content.writeTo(out);
+        } catch (Exception e) {
+            Files.deleteIfExists(tmpFile.toPath());
+            throw e;
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        OrdersFileVersion version = new OrdersFileVersion();
+        version.setParentId(parent == null ? null : parent.getId());
+        version.setSource(source);
+        version.setFileName(fileName);
+        version.setSizeBytes(file.length());
+        version.setSha256(HexFormat.of().formatHex(sha256.digest()));
+        version.setCreatedAt(LocalDateTime.now());
+        version = repository.save(version);
+        latest = version;
+        maintenance.execute(this::maintain);
+        return version;
+    }
+
+    // two versions written in the same second get distinct names
+    private String newFileName() {
+        String base = "items_orders_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String name = base + ".xlsx";
+        for (int n = 2; new File(folder, name).exists() || new File(folder, name + ".gz").exists(); n++)
+            name = base + "_" + n + ".xlsx";
+        return name;
+    }
+
+    private void adoptFolder() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith("items_orders_")
+                && (name.endsWith(".xlsx") || name.endsWith(".xlsx.gz")));
+        if (files == null)
+            return;
+        // names carry the time written, compressing a file changes its modification time
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        OrdersFileVersion parent = null;
+        for (File file : files) {
+            boolean compressed = file.getName().endsWith(".gz");
+            OrdersFileVersion version = new OrdersFileVersion();
+            version.setParentId(parent == null ? null : parent.getId());
+            version.setSource("adopted");
+            version.setFileName(compressed ? file.getName().substring(0, file.getName().length() - 3) : file.getName());
+            version.setCompressed(compressed);
+            // size and hash are of the xlsx, as for versions written here
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (InputStream in = open(version)) {
+                byte[] buffer = new byte[8192];
+                for (int n; (n = in.read(buffer)) > 0; size += n)
+                    digest.update(buffer, 0, n);
+            }
+            version.setSizeBytes(size);
+            version.setSha256(HexFormat.of().formatHex(digest.digest()));
+            version.setCreatedAt(LocalDateTime.now());
+            parent = repository.save(version);
+        }
+        // the latest version is read as an xlsx
+        if (parent != null && parent.isCompressed()) {
+            File gzFile = fileOf(parent);
+            try (InputStream in = open(parent)) {
+                Files.copy(in, new File(folder, parent.getFileName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            parent.setCompressed(false);
+            parent = repository.save(parent);
+            Files.delete(gzFile.toPath());
+        }
+        latest = parent;
+    }
+
+    /** Deletes the versions past retention and compresses the older ones kept. */
+    private void maintain() {
+        List<OrdersFileVersion> versions = repository.findAllByOrderByIdDesc();
+        for (int i = 0; i < versions.size(); i++) {
+            OrdersFileVersion version = versions.get(i);
+            try {
+                if (i >= keep) {
+                    Files.deleteIfExists(fileOf(version).toPath());
+                    repository.delete(version);
+                } else if (i >= keepUncompressed && !version.isCompressed()) {
+                    compress(version);
+                }
+            } catch (Exception e) {
+                // retried after the next write
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void compress(OrdersFileVersion version) throws IOException {
+        File file = fileOf(version);
+        File gzFile = new File(folder, version.getFileName() + ".gz");
+        File tmpFile = new File(folder, gzFile.getName() + ".tmp");
+        try (OutputStream out = new BestCompressionGZIPOutputStream(new FileOutputStream(tmpFile))) {
+            Files.copy(file.toPath(), out);
+        }
+        Files.move(tmpFile.toPath(), gzFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        version.setCompressed(true);
+        repository.save(version);
+        Files.delete(file.toPath());
+    }
+
+    /** GZIPOutputStream only takes the deflate level through its protected deflater. */
+    private static class BestCompressionGZIPOutputStream extends GZIPOutputStream {
+        BestCompressionGZIPOutputStream(OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // lets a running compression finish before the worker thread exits
+        maintenance.shutdown();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.config.ExcelFormatConfig;
+import com.example.customerservice.model.OrdersFileVersion;
+import com.example.customerservice.util.OrdersSheetParser;
+import com.example.customerservice.util.OrdersSheetReader;
+import com.example.customerservice.util.PackingSheetWriter;
+import jakarta.annotation.PreDestroy;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Upload pipeline for the weekly orders workbook. The upload is spooled to a
+ * temporary file once and opened read-only from there: the import streams it
+ * through {@link OrdersSheetReader}, and the printable copy is streamed from the
+ * same file through {@link PackingSheetWriter} into {@link OrdersFileStore} on a
+ * background thread, which then indexes it for the Paybox flow.
+ */
+@Service
+public class OrdersUploadService {
+    private final CustomerService customerService;
+    private final ImportService importService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrdersFileStore fileStore;
+    private final OrdersWorkbookCache ordersCache;
+    private final ExcelFormatConfig excelFormat;
+    // single thread: formatted copies are written one at a time, in upload order
+    private final ExecutorService fileWriter = Executors.newSingleThreadExecutor(
+            r -> new Thread(r, "orders-file-writer"));
+
+    public OrdersUploadService(CustomerService customerService, ImportService importService,
+            PlatformTransactionManager transactionManager, OrdersFileStore fileStore,
+            OrdersWorkbookCache ordersCache, ExcelFormatConfig excelFormat) {
+        this.customerService = customerService;
+        this.importService = importService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fileStore = fileStore;
+        this.ordersCache = ordersCache;
+        this.excelFormat = excelFormat;
+    }
+
+    /**
+     * Parses the uploaded workbook and makes items/orders/order items match its
+     * contents, either by replacing all rows or by merging only the differences.
+     * Stage and row progress are reported on {@code job}, and row statistics and
+     * per-stage timings on its report. A dry run performs every write inside a
+     * transaction that is rolled back, so the summary counts are exact but
+     * nothing is committed.
+     */
+    public ImportSummary importOrders(File workbook, LocalDateTime uploadedAt, boolean merge, boolean dryRun,
+            ImportJob job) throws Exception {
+        ImportReport report = job.getReport();
+        OrdersSheetParser parser = new OrdersSheetParser(uploadedAt);
+        job.setStage(ImportJob.Stage.PARSING);
+        report.time("parse", () -> {
+            OrdersSheetReader.read(workbook, row -> {
+                parser.row(row);
+                job.rowProcessed();
+            });
+            return null;
+        });
+        // match stored customers for all header names with one query
+        report.time("resolve customers", () -> {
+            parser.resolveCustomers(customerService::findByNamesIgnoreCase);
+            return null;
+        });
+        report.setRowsRead(parser.getRowsRead());
+        report.setCustomersCreated(parser.getCustomers().size());
+        report.setCustomersReused(parser.getCustomersReused());
+        report.setItemsCreated(parser.getItemRegistry().size());
+        report.setItemRowsMerged(parser.getItemRegistry().getMergedRowCount());
+        report.setItemRowCounts(parser.getItemRegistry().getRowCounts());
+        report.setOrdersParsed(parser.getOrders().size());
+        report.setOrderItemsParsed(parser.getOrderItems().size());
+        report.setSkippedRows(parser.getSkippedRows());
+        report.setSkippedSamples(parser.getSkippedSamples());
+
+        job.setStage(ImportJob.Stage.SAVING);
+        ImportSummary summary = report.time(dryRun ? "persist (rolled back)" : "persist",
+                () -> transactionTemplate.execute(status -> {
+                    ImportSummary written = merge
+                            ? importService.mergeAll(parser.getCustomers(), parser.getItems(), parser.getOrders(),
+                                    parser.getOrderItems())
+                            : importService.replaceAll(parser.getCustomers(), parser.getItems(),
+                                    parser.getOrders(), parser.getOrderItems());
+                    if (dryRun)
+                        status.setRollbackOnly();
+                    return written;
+                }));
+        summary.setItemRowsMerged(parser.getItemRegistry().getMergedRowCount());
+        report.setSummary(summary);
+        return summary;
+    }
+
+    /**
+     * Formats the uploaded workbook for printing and stores it in
+     * {@link OrdersFileStore} as a new version in the background.
+     */
+    public CompletableFuture<File> saveFormattedCopyAsync(File workbook, ImportReport report) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return report.time("format and save copy", () -> saveFormattedCopy(workbook));
+            } catch (Exception ex) {
+                // Non-fatal: the import itself does not depend on the saved copy
+                ex.printStackTrace();
+                return null;
+            }
+        }, fileWriter);
+    }
+
+    private File saveFormattedCopy(File workbook) throws Exception {
+        OrdersFileVersion saved;
+        try {
+            saved = fileStore.write(null, "upload", out -> {
+                try (OPCPackage source = OPCPackage.open(workbook, PackageAccess.READ)) {
+                    PackingSheetWriter.write(source, Map.of(), excelFormat.getBlankCustomers(), out);
+                }
+            });
+        } catch (Exception e) {
+            // If formatting fails, keep the raw upload so the Paybox flow still has a file
+            saved = fileStore.write(null, "upload", out -> Files.copy(workbook.toPath(), out));
+        }
+        // index it here, off the request thread, so the next Paybox upload starts warm
+        OrdersWorkbookCache.Snapshot latest = ordersCache.getLatest();
+        if (latest != null && latest.getVersion().getId().equals(saved.getId()))
+            latest.getHeaders();
+        return fileStore.fileOf(saved);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // lets a queued copy finish writing before the worker thread exits
+        fileWriter.shutdown();
+    }
+}
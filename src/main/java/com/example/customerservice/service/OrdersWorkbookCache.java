@@ -0,0 +1,71 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.OrdersFileVersion;
+import com.example.customerservice.util.CustomerHeaderIndex;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+
+/**
+ * The latest version in {@link OrdersFileStore}, and its customer header index,
+ * kept in memory for the Paybox flow. Every version is written through the
+ * store, so the cached one is current for as long as the store's latest version
+ * is the same, and the index is parsed once per version.
+ */
+@Service
+public class OrdersWorkbookCache {
+
+    /** One version of the orders workbook, with its header index parsed on first use. */
+    public static final class Snapshot {
+        private final OrdersFileVersion version;
+        private final File file;
+        private CustomerHeaderIndex headers;
+
+        Snapshot(OrdersFileVersion version, File file) {
+            this.version = version;
+            this.file = file;
+        }
+
+        public OrdersFileVersion getVersion() {
+            return version;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public synchronized CustomerHeaderIndex getHeaders() throws Exception {
+            if (headers == null)
+                headers = CustomerHeaderIndex.read(file);
+            return headers;
+        }
+    }
+
+    private final OrdersFileStore store;
+    private volatile Snapshot latest;
+
+    public OrdersWorkbookCache(OrdersFileStore store) {
+        this.store = store;
+    }
+
+    /** The latest orders workbook, or null when there is none. */
+    public Snapshot getLatest() {
+        OrdersFileVersion version = store.getLatest();
+        if (version == null)
+            return null;
+        Snapshot current = latest;
+        if (current != null && current.getVersion().getId().equals(version.getId()))
+            return current;
+        return replace(version);
+    }
+
+    // one snapshot, and so one parse, per version even when requests race
+    private synchronized Snapshot replace(OrdersFileVersion version) {
+        Snapshot current = latest;
+        if (current == null || !current.getVersion().getId().equals(version.getId())) {
+            current = new Snapshot(version, store.fileOf(version));
+            latest = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.Payment;
+import com.example.customerservice.repository.PaymentRepository;
+import com.example.customerservice.util.CustomerPhoneIndex;
+import com.example.customerservice.util.PayboxExportReader;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the payments of Paybox exports. Exports overlap (each one repeats the
+ * weeks before it), so recording is incremental: the newest payment already
+ * stored is the high-water mark, rows older than it are skipped without a
+ * lookup, and rows from the mark on are checked against the stored keys (phone,
+ * paid at, amount) with one query. Recording the same export twice stores
+ * nothing the second time.
+ *
+ * Two uploads recording overlapping exports at the same time can both take a
+ * payment for new; the unique key stores it once, and the upload that flushes
+ * second gets a DataIntegrityViolationException and nothing of its export is
+ * stored. Recording again then skips what the other upload stored.
+ */
+@Service
+public class PaymentService {
+    private final PaymentRepository repository;
+
+    public PaymentService(PaymentRepository repository) {
+        this.repository = repository;
+    }
+
+    /** The newest payment recorded so far, or null before the first export. */
+    public LocalDateTime getHighWaterMark() {
+        return repository.findHighWaterMark();
+    }
+
+    /**
+     * Stores the payments not recorded yet, linked to the customer their phone
+     * matches.
+     *
+     * @return how many payments were new
+     * @throws org.springframework.dao.DataIntegrityViolationException when another
+     *         upload stored some of the same payments in the meantime
+     */
+    @Transactional
+    public int record(List<PayboxExportReader.Payment> payments, CustomerPhoneIndex customers) {
+        LocalDateTime mark = repository.findHighWaterMark();
+        Set<String> recorded = new HashSet<>();
+        if (mark != null) {
+            for (Payment stored : repository.findByPaidAtGreaterThanEqual(mark))
+                recorded.add(key(stored.getPhone(), stored.getPaidAt(), stored.getAmount()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> added = new ArrayList<>();
+        for (PayboxExportReader.Payment row : payments) {
+            if (mark != null && row.getPaidAt().isBefore(mark))
+                continue;
+            if (!recorded.add(key(row.getPhone(), row.getPaidAt(), row.getAmount())))
+                continue;
+            Payment payment = new Payment();
+            payment.setPhone(row.getPhone());
+            payment.setPaidAt(row.getPaidAt());
+            payment.setAmount(row.getAmount());
+            payment.setPayerName(row.getName());
+            payment.setPackageType(row.getPackageType());
+            payment.setCustomer(customers.find(row.getPhone()));
+            payment.setRecordedAt(now);
+            added.add(payment);
+        }
+        // flushed here, so a clash on the unique key surfaces as the translated exception
+        repository.saveAllAndFlush(added);
+        return added.size();
+    }
+
+    private static String key(String phone, LocalDateTime paidAt, float amount) {
+        return phone + '|' + paidAt + '|' + amount;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.UploadedWorkbook;
+import com.example.customerservice.repository.UploadedWorkbookRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Registry of imported orders workbooks by content hash. Only the most recent
+ * import counts as "already imported": re-uploading an older export after a
+ * newer one still has to replace the data.
+ */
+@Service
+public class UploadedWorkbookService {
+    private final UploadedWorkbookRepository repository;
+
+    public UploadedWorkbookService(UploadedWorkbookRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * An upload spooled to a temporary file, together with its SHA-256 computed
+     * while the stream was copied. The import and the formatted copy both open the
+     * file read-only, so the workbook is never held in memory as a whole;
+     * {@link #delete()} removes it once both are done.
+     */
+    public static final class HashedUpload {
+        private final File file;
+        private final long size;
+        private final String sha256;
+
+        HashedUpload(File file, long size, String sha256) {
+            this.file = file;
+            this.size = size;
+            this.sha256 = sha256;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public void delete() {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public static HashedUpload read(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Path file = Files.createTempFile("orders-upload-", ".xlsx");
+        try (DigestInputStream hashing = new DigestInputStream(in, digest)) {
+            long size = Files.copy(hashing, file, StandardCopyOption.REPLACE_EXISTING);
+            return new HashedUpload(file.toFile(), size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /** The last import, if it was of a workbook with exactly this content. */
+    public Optional<UploadedWorkbook> findLatestIfSame(String sha256) {
+        return repository.findTopByOrderByImportedAtDesc().filter(w -> w.getSha256().equals(sha256));
+    }
+
+    @Transactional
+    public UploadedWorkbook recordImport(String sha256, String fileName, long sizeBytes, LocalDateTime importedAt) {
+        UploadedWorkbook workbook = repository.findBySha256(sha256).orElseGet(UploadedWorkbook::new);
+        workbook.setSha256(sha256);
+        workbook.setFileName(fileName);
+        workbook.setSizeBytes(sizeBytes);
+        workbook.setImportedAt(importedAt);
+        return repository.save(workbook);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.util.OrdersSheetReader.RowHandler;
+import com.example.customerservice.util.OrdersSheetReader.SheetCell;
+import com.example.customerservice.util.OrdersSheetReader.SheetRow;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellAddress;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.example.customerservice.util.ExcelProcess.ISUF_LOD;
+
+/**
+ * Where each customer's header cell ("name איסוף: לוד ...") is in an orders
+ * sheet, collected in one streamed pass. Headers a previous Paybox upload has
+ * already rewritten ("name\nאריזה ...", "name\nמשלוח ל...") are found too,
+ * since every upload starts from the latest, already rewritten, version.
+ * Customers are keyed by lower-cased name, as {@link OrdersSheetParser} keys
+ * them, and positions are kept in sheet order (row by row, left to right) so a
+ * name that heads more than one block can be reported instead of silently
+ * taking the first.
+ */
+public class CustomerHeaderIndex implements RowHandler {
+    // the pickup line as UploadPackagesPayboxController rewrites it, on its own line
+    private static final String[] REWRITTEN_PICKUP = { "\nאריזה", "\nמשלוח ל" };
+
+    private final Map<String, List<CellAddress>> byName = new LinkedHashMap<>();
+    private final Map<CellAddress, String> values = new HashMap<>();
+
+    public static CustomerHeaderIndex read(File ordersFile) throws Exception {
+        CustomerHeaderIndex index = new CustomerHeaderIndex();
+        OrdersSheetReader.read(ordersFile, index);
+        return index;
+    }
+
+    public static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void row(SheetRow row) {
+        for (int col = 0; col < row.getLastCellNum(); col++) {
+            SheetCell cell = row.getCell(col);
+            if (cell == null || cell.getType() != CellType.STRING)
+                continue;
+            String value = cell.getValue();
+            int marker = pickupLine(value);
+            if (marker <= 0)
+                continue;
+            String name = key(value.substring(0, marker));
+            if (name.isEmpty())
+                continue;
+            CellAddress address = new CellAddress(row.getRowNum(), col);
+            byName.computeIfAbsent(name, n -> new ArrayList<>(1)).add(address);
+            values.put(address, value);
+        }
+    }
+
+    /** Where the pickup line starts, or -1 when the text is not a customer header. */
+    private static int pickupLine(String value) {
+        int marker = value.indexOf(ISUF_LOD);
+        if (marker >= 0)
+            return marker;
+        for (String rewritten : REWRITTEN_PICKUP) {
+            marker = value.indexOf(rewritten);
+            if (marker >= 0)
+                return marker + 1;
+        }
+        return -1;
+    }
+
+    /** The first header of the customer with this name, or null. */
+    public CellAddress find(String name) {
+        List<CellAddress> positions = byName.get(key(name));
+        return positions == null ? null : positions.get(0);
+    }
+
+    /** The text of a header cell returned by {@link #find}. */
+    public String getValue(CellAddress header) {
+        return values.get(header);
+    }
+
+    /** Names (as {@link #key}) that head more than one block, with their headers in sheet order. */
+    public Map<String, List<CellAddress>> getDuplicates() {
+        Map<String, List<CellAddress>> duplicates = new LinkedHashMap<>();
+        for (Map.Entry<String, List<CellAddress>> e : byName.entrySet()) {
+            if (e.getValue().size() > 1)
+                duplicates.put(e.getKey(), e.getValue());
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks customers up by phone number. Every number in a customer's phones field
+ * is folded to the last-6-digits form the imports store, so a full number from a
+ * Paybox export ("972-50-1234567", "0501234567") finds the customer with a
+ * single hash probe. When two customers share a number the one listed first
+ * wins.
+ */
+public class CustomerPhoneIndex {
+
+    private final Map<String, Customer> byPhone = new HashMap<>();
+
+    public CustomerPhoneIndex(Collection<Customer> customers) {
+        for (Customer customer : customers) {
+            for (String phone : phones(customer.getPhones()))
+                byPhone.putIfAbsent(phone, customer);
+        }
+    }
+
+    /**
+     * @return the customer with this number, or null when there is none or the
+     *         text has no digits
+     */
+    public Customer find(String phone) {
+        if (phone == null)
+            return null;
+        String key = last6(phone, 0, phone.length());
+        return key.isEmpty() ? null : byPhone.get(key);
+    }
+
+    /**
+     * The numbers in a phones field, each as its last 6 digits. Numbers are
+     * separated by commas, semicolons, slashes or new lines; a space separates
+     * numbers only when every space-separated piece is long enough to be a number
+     * on its own, so "050 123 4567" stays one number. The field is scanned once,
+     * without regular expressions, since the index reads every customer's.
+     */
+    static List<String> phones(String field) {
+        List<String> result = new ArrayList<>();
+        if (field == null)
+            return result;
+        int partStart = 0;
+        for (int i = 0; i <= field.length(); i++) {
+            if (i == field.length() || isSeparator(field.charAt(i))) {
+                addPart(field, partStart, i, result);
+                partStart = i + 1;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == ';' || c == '/' || c == '|' || c == '\n';
+    }
+
+    private static void addPart(String field, int from, int to, List<String> result) {
+        // where each space-separated piece starts, and whether every piece is a whole number
+        List<Integer> starts = new ArrayList<>();
+        boolean separate = true;
+        boolean inPiece = false;
+        int pieceDigits = 0;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? field.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (inPiece && pieceDigits < 6)
+                    separate = false;
+                inPiece = false;
+            } else {
+                if (!inPiece) {
+                    starts.add(i);
+                    pieceDigits = 0;
+                    inPiece = true;
+                }
+                if (c >= '0' && c <= '9')
+                    pieceDigits++;
+            }
+        }
+        if (separate && starts.size() > 1) {
+            for (int p = 0; p < starts.size(); p++)
+                result.add(last6(field, starts.get(p), p + 1 < starts.size() ? starts.get(p + 1) : to));
+        } else {
+            String phone = last6(field, from, to);
+            if (!phone.isEmpty())
+                result.add(phone);
+        }
+    }
+
+    /** The same as {@link OrdersSheetParser#maskToLast6} on {@code text[from, to)}. */
+    private static String last6(String text, int from, int to) {
+        char[] digits = new char[6];
+        int n = 0;
+        for (int i = to - 1; i >= from && n < 6; i--) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits[5 - n++] = c;
+        }
+        return new String(digits, 6 - n, n);
+    }
+}
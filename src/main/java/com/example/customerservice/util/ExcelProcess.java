@@ -1,23 +1,22 @@
 package com.example.customerservice.util;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.Stream;
 
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 public class ExcelProcess {
 
     // formatting helpers/constants moved from UploadPackagesPayboxController
     public static final String ISUF_LOD = "איסוף: לוד";
-    private static final java.util.List<String> BLANK_CUSTOMERS = Arrays.asList("זיוה סרי", "יוסף דיין", "דביר גילאור");
+    /** The blank list used when orders.blank-customers is not set. */
+    public static final java.util.List<String> DEFAULT_BLANK_CUSTOMERS = java.util.List.of("זיוה סרי", "יוסף דיין",
+            "דביר גילאור");
     private static final int[] COLUMN_SET_1 = { 0, 1, 2 };
     private static final int[] COLUMN_SET_2 = { 4, 5, 6 };
     private static final java.util.List<String> VALUES_TO_CLEAR_CONTENT = Arrays.asList("תוספות", "סך הכל");
@@ -28,110 +27,130 @@ public class ExcelProcess {
             "כ1.5 ק\"ג בסלסלה",
             "מעולות", "גדול להשיג", " בשקית", "כשרות אפרתי", "(סלסלה קטנה)", "נקי מחרקים", "ישראלי ואיכותי", "מחיר ",
             "בחזקת ניקיון כמו");
+    private static final String RED_POTATO = "תפו\"א אדום";
+    private static final String RED_MARK = "(אדום)";
+    private static final String HERMON = "חרמון";
+    // SUBS_TO_REMOVE first (pattern i is SUBS_TO_REMOVE.get(i)), then the words the prefix rules look for
+    private static final MultiPatternMatcher ITEM_NAME_MATCHER = new MultiPatternMatcher(
+            Stream.concat(SUBS_TO_REMOVE.stream(), Stream.of(RED_POTATO, RED_MARK, HERMON)).toList());
+    private static final int RED_POTATO_ID = SUBS_TO_REMOVE.size();
+    private static final int RED_MARK_ID = RED_POTATO_ID + 1;
+    private static final int HERMON_ID = RED_POTATO_ID + 2;
 
-    // reusable styles
-    private static CellStyle whiteFontStyle;
-    private static CellStyle bold13Font;
-    private static XSSFFont boldFont;
-
-    public static void initializeStyles(Workbook workbook) {
-        if (whiteFontStyle == null) {
-            XSSFFont whiteFont = ((XSSFWorkbook) workbook).createFont();
-            whiteFont.setColor(new XSSFColor(new byte[] { (byte) 255, (byte) 255, (byte) 255 }, null));
-            whiteFontStyle = workbook.createCellStyle();
-            whiteFontStyle.setFont(whiteFont);
-
-            boldFont = ((XSSFWorkbook) workbook).createFont();
-            boldFont.setBold(true);
-            boldFont.setFontHeightInPoints((short) 13);
-            bold13Font = workbook.createCellStyle();
-            bold13Font.setFont(boldFont);
-        }
+    /**
+     * All packing-sheet formatting in one pass over the sheet. Produces the same
+     * workbook as calling blankCustomers, clearSpecificValues,
+     * clearNonMergedCellValuesInColumns, makeColumnsInvisible, cleanupItemNames,
+     * boldQuantities, setColumnWidths and setPageSetup one after the other.
+     *
+     * @param blankCustomers the names whose blocks are blanked
+     */
+    public static SheetFormatter packingSheetFormatter(MultiPatternMatcher blankCustomers) {
+        // one style registry per pass, shared by the rules that bold cells
+        WorkbookStyles styles = new WorkbookStyles();
+        return SheetFormatter.of(blankCustomersRule(blankCustomers), clearSpecificValuesRule(),
+                clearNonMergedCellValuesInColumnsRule(), makeColumnsInvisibleRule(), cleanupItemNamesRule(styles),
+                boldQuantitiesRule(styles), SheetFormatter.sheet(ExcelProcess::setColumnWidths),
+                SheetFormatter.sheet(ExcelProcess::setPageSetup));
     }
 
-    public static void blankCustomers(Sheet ordersSheet) {
-        // apply formatting changes (moved from UploadPackagesPayboxController)
-        for (int r = ordersSheet.getFirstRowNum(); r <= ordersSheet.getLastRowNum(); r++) {
-            for (String blankCustomer : BLANK_CUSTOMERS) {
-                blankColumn(ordersSheet, COLUMN_SET_1, blankCustomer, r);
-                blankColumn(ordersSheet, COLUMN_SET_2, blankCustomer, r);
-            }
-        }
+    public static void blankCustomers(Sheet ordersSheet, MultiPatternMatcher names) {
+        SheetFormatter.of(blankCustomersRule(names)).format(ordersSheet);
     }
 
-    public static boolean blankColumn(Sheet sheet, int[] columnIndices, String blankCustomer, int startRow) {
-        Row startRowObj = sheet.getRow(startRow);
-        if (startRowObj == null)
-            return false;
-        Cell firstCell = startRowObj.getCell(columnIndices[0]);
-        String cellValue = getCellValueAsString(firstCell);
-        if (cellValue != null && cellValue.contains(blankCustomer)) {
-            setFontColorToWhite(firstCell);
-            for (int r = startRow + 1; r <= sheet.getLastRowNum(); r++) {
-                Row currentRow = sheet.getRow(r);
-                if (currentRow == null)
+    /**
+     * Blanks the blocks of the blank-list customers. Each column set is cut into
+     * customer blocks at its ISUF_LOD header rows as the rows go by; a block whose
+     * first cell names a blank-list customer has that name blanked and the
+     * product columns of every later row blanked, up to (not including) the next
+     * header. The names are matched with one automaton scan of the first cell, so
+     * the cost per row does not grow with the list.
+     */
+    public static SheetFormatter.Rule blankCustomersRule(MultiPatternMatcher names) {
+        int[][] columnSets = { COLUMN_SET_1, COLUMN_SET_2 };
+        boolean[] inBlankBlock = new boolean[columnSets.length];
+        return row -> {
+            for (int s = 0; s < columnSets.length; s++) {
+                int[] columnIndices = columnSets[s];
+                Cell firstCell = row.getCell(columnIndices[0]);
+                String cellValue = getCellValueAsString(firstCell);
+                if (inBlankBlock[s] && !cellValue.contains(ISUF_LOD)) {
+                    for (int colIndex : columnIndices) {
+                        Cell cellToBlank = row.getCell(colIndex);
+                        if (cellToBlank == null)
+                            cellToBlank = row.createCell(colIndex, CellType.BLANK);
+                        setFontColorToWhite(cellToBlank);
+                    }
                     continue;
-                Cell firstCellOfRow = currentRow.getCell(columnIndices[0]);
-                String currentRowValue = getCellValueAsString(firstCellOfRow);
-                if (currentRowValue != null && currentRowValue.contains(ISUF_LOD)) {
-                    return true;
-                }
-                for (int colIndex : columnIndices) {
-                    Cell cellToBlank = currentRow.getCell(colIndex);
-                    if (cellToBlank == null)
-                        cellToBlank = currentRow.createCell(colIndex, CellType.BLANK);
-                    setFontColorToWhite(cellToBlank);
                 }
+                inBlankBlock[s] = names.containsAny(cellValue);
+                if (inBlankBlock[s])
+                    setFontColorToWhite(firstCell);
             }
-            return true;
-        }
-        return false;
+        };
     }
 
     public static void clearSpecificValues(Sheet sheet) {
-        for (Row row : sheet) {
-            for (Cell cell : row) {
-                if (cell.getCellType() == CellType.STRING
-                        && VALUES_TO_CLEAR_CONTENT.contains(cell.getStringCellValue())) {
-                    setFontColorToWhite(cell);
-                }
+        SheetFormatter.of(clearSpecificValuesRule()).format(sheet);
+    }
+
+    public static SheetFormatter.Rule clearSpecificValuesRule() {
+        return SheetFormatter.cells(cell -> {
+            if (cell.getCellType() == CellType.STRING
+                    && VALUES_TO_CLEAR_CONTENT.contains(cell.getStringCellValue())) {
+                setFontColorToWhite(cell);
             }
-        }
+        });
     }
 
     public static void clearNonMergedCellValuesInColumns(Sheet sheet) {
-        java.util.List<CellRangeAddress> mergedRegions = sheet.getMergedRegions();
-        for (int r = sheet.getFirstRowNum(); r <= sheet.getLastRowNum(); r++) {
-            Row row = sheet.getRow(r);
-            if (row == null)
-                continue;
-            for (int colIndex : COLUMNS_TO_CLEAR_VALUES) {
-                Cell cell = row.getCell(colIndex);
-                if (cell == null)
-                    continue;
-                boolean isMerged = false;
-                for (CellRangeAddress range : mergedRegions) {
-                    if (range.isInRange(r, colIndex)) {
-                        isMerged = true;
-                        break;
+        SheetFormatter.of(clearNonMergedCellValuesInColumnsRule()).format(sheet);
+    }
+
+    public static SheetFormatter.Rule clearNonMergedCellValuesInColumnsRule() {
+        return new SheetFormatter.Rule() {
+            private MergedRegionIndex mergedRegions;
+
+            @Override
+            public void start(Sheet sheet) {
+                mergedRegions = mergedRegionIndex(sheet);
+            }
+
+            @Override
+            public void row(Row row) {
+                for (int colIndex : COLUMNS_TO_CLEAR_VALUES) {
+                    Cell cell = row.getCell(colIndex);
+                    if (cell == null)
+                        continue;
+                    if (!mergedRegions.isMerged(row.getRowNum(), colIndex)) {
+                        setFontColorToWhite(cell);
                     }
                 }
-                if (!isMerged) {
-                    setFontColorToWhite(cell);
-                }
             }
-        }
+        };
+    }
+
+    /**
+     * Index of the sheet's merged regions for O(log n) "is this cell merged?"
+     * checks. Build it once per pass; it does not follow later merges.
+     */
+    public static MergedRegionIndex mergedRegionIndex(Sheet sheet) {
+        return MergedRegionIndex.of(sheet);
     }
 
     public static void makeColumnsInvisible(Sheet sheet) {
-        for (int colIndex : COLUMNS_TO_INVISIBLE) {
-            for (Row row : sheet) {
+        SheetFormatter.of(makeColumnsInvisibleRule()).format(sheet);
+    }
+
+    public static SheetFormatter.Rule makeColumnsInvisibleRule() {
+        return row -> {
+            for (int colIndex : COLUMNS_TO_INVISIBLE) {
                 Cell cell = row.getCell(colIndex);
                 if (cell == null)
                     cell = row.createCell(colIndex, CellType.BLANK);
                 setFontColorToWhite(cell);
             }
-        }
+        };
     }
 
     @SuppressWarnings("deprecation")
@@ -155,10 +174,18 @@ public class ExcelProcess {
     }
 
     public static void boldQuantities(Sheet sheet) {
-        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-            Row row = sheet.getRow(r);
-            if (row == null)
-                continue;
+        SheetFormatter.of(boldQuantitiesRule()).format(sheet);
+    }
+
+    public static SheetFormatter.Rule boldQuantitiesRule() {
+        return boldQuantitiesRule(new WorkbookStyles());
+    }
+
+    /** Bolds multi-unit quantities and their product names. */
+    public static SheetFormatter.Rule boldQuantitiesRule(WorkbookStyles styles) {
+        return row -> {
+            if (row.getRowNum() < 1)
+                return;
             Cell checkCellB = row.getCell(1);
             Cell adjCellA = row.getCell(0);
             Cell checkCellF = row.getCell(5);
@@ -166,27 +193,34 @@ public class ExcelProcess {
             if (checkCellB != null) {
                 String cellValue = getCellValueAsString(checkCellB);
                 if (cellValue.contains("יח'") && !cellValue.contains("1") && !cellValue.contains("0")) {
-                    setBold13Font(checkCellB);
+                    setBold13Font(checkCellB, styles);
                     if (adjCellA != null)
-                        setBold13Font(adjCellA);
+                        setBold13Font(adjCellA, styles);
                 }
             }
             if (checkCellF != null) {
                 String cellValue = getCellValueAsString(checkCellF);
                 if (cellValue.contains("יח'") && !cellValue.contains("1") && !cellValue.contains("0")) {
-                    setBold13Font(checkCellF);
+                    setBold13Font(checkCellF, styles);
                     if (adjCellE != null)
-                        setBold13Font(adjCellE);
+                        setBold13Font(adjCellE, styles);
                 }
             }
-        }
+        };
     }
 
     public static void cleanupItemNames(Sheet sheet) {
-        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-            Row row = sheet.getRow(r);
-            if (row == null)
-                continue;
+        SheetFormatter.of(cleanupItemNamesRule()).format(sheet);
+    }
+
+    public static SheetFormatter.Rule cleanupItemNamesRule() {
+        return cleanupItemNamesRule(new WorkbookStyles());
+    }
+
+    public static SheetFormatter.Rule cleanupItemNamesRule(WorkbookStyles styles) {
+        return row -> {
+            if (row.getRowNum() < 1)
+                return;
             for (int colIndex : new int[] { 0, 4 }) {
                 Cell cell = row.getCell(colIndex);
                 if (cell == null || cell.getCellType() != CellType.STRING)
@@ -194,17 +228,48 @@ public class ExcelProcess {
                 String value = cell.getStringCellValue();
                 if (value == null)
                     continue;
-                for (String sub : SUBS_TO_REMOVE)
-                    value = value.replace(sub, "");
-                if (value.contains("תפו\"א אדום") && !value.contains("(אדום)")) {
-                    value = "(אדום) " + value;
-                    setBold13Font(cell);
-                }
-                if (value.contains("חרמון"))
-                    value = value.replace("חרמון", "(אדום) חרמון");
-                cell.setCellValue(value.trim());
+                BitSet present = ITEM_NAME_MATCHER.find(value);
+                String cleaned = cleanupItemName(value, present);
+                if (present.get(RED_POTATO_ID) && !present.get(RED_MARK_ID))
+                    setBold13Font(cell, styles);
+                cell.setCellValue(cleaned);
             }
+        };
+    }
+
+    /**
+     * A product name as the packing sheet shows it: the SUBS_TO_REMOVE entries
+     * removed, red potatoes marked in front and Hermon marked in place.
+     */
+    public static String cleanupItemName(String value) {
+        return cleanupItemName(value, ITEM_NAME_MATCHER.find(value));
+    }
+
+    // present is left as found after the removals, so callers can tell whether the red mark was added
+    private static String cleanupItemName(String value, BitSet present) {
+        value = removeSubs(value, present);
+        if (present.get(RED_POTATO_ID) && !present.get(RED_MARK_ID))
+            value = RED_MARK + " " + value;
+        if (present.get(HERMON_ID))
+            value = value.replace(HERMON, RED_MARK + " " + HERMON);
+        return value.trim();
+    }
+
+    /**
+     * Removes every SUBS_TO_REMOVE entry found in {@code value}, with the same
+     * result as calling value.replace(sub, "") for each entry in list order. Only
+     * entries the scan found are replaced; after each removal the text is
+     * rescanned (and {@code present} updated), since joining the remaining text
+     * can form a later entry. Names without any entry cost a single scan.
+     */
+    private static String removeSubs(String value, BitSet present) {
+        for (int i = present.nextSetBit(0); i >= 0 && i < SUBS_TO_REMOVE.size(); i = present.nextSetBit(i + 1)) {
+            value = value.replace(SUBS_TO_REMOVE.get(i), "");
+            BitSet now = ITEM_NAME_MATCHER.find(value);
+            present.clear();
+            present.or(now);
         }
+        return value;
     }
 
     public static String getCellValueAsString(Cell cell) {
@@ -250,14 +315,10 @@ public class ExcelProcess {
         }
     }
 
-    public static void setBold13Font(Cell cell) {
+    public static void setBold13Font(Cell cell, WorkbookStyles styles) {
         if (cell != null) {
-            Workbook wb = cell.getSheet().getWorkbook();
-            CellStyle orig = cell.getCellStyle();
-            CellStyle ns = wb.createCellStyle();
-            ns.cloneStyleFrom(orig);
-            ns.setFont(boldFont);
-            cell.setCellStyle(ns);
+            Workbook workbook = cell.getSheet().getWorkbook();
+            cell.setCellStyle(styles.withFont(workbook, cell.getCellStyle(), styles.bold13Font(workbook)));
         }
     }
 
@@ -0,0 +1,99 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.model.Item;
+import com.example.customerservice.model.Item.ItemType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Deduplicates the products of an orders import. Product names are folded to a
+ * normalized key (quotes stripped, lower-cased) so each lookup is a single hash
+ * probe, and every row that lands on an item is counted so the merge behaviour
+ * can be checked after an import.
+ */
+public class ItemRegistry {
+
+    private static final class Entry {
+        final Item item;
+        long firstSeen;
+        int rows;
+
+        Entry(Item item, long firstSeen) {
+            this.item = item;
+            this.firstSeen = firstSeen;
+        }
+    }
+
+    private final Map<String, Entry> byKey = new HashMap<>();
+
+    public static String key(String product) {
+        return product == null ? "" : product.replace("\"", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the item for {@code product}, creating it on first sight. When the
+     * row at {@code rank} precedes the row that created the item, the item takes
+     * its name, price and type from this row instead.
+     */
+    public Item merge(String product, float pricePerUnitOrKg, ItemType type, long rank) {
+        Entry e = byKey.get(key(product));
+        if (e == null) {
+            Item ni = new Item();
+            ni.setName(product);
+            ni.setPrice(pricePerUnitOrKg);
+            ni.setType(type);
+            ni.setAvailable(false);
+            ni.setMetadata("Imported");
+            e = new Entry(ni, rank);
+            byKey.put(key(product), e);
+        } else if (rank < e.firstSeen) {
+            e.item.setName(product);
+            e.item.setPrice(pricePerUnitOrKg);
+            e.item.setType(type);
+            e.firstSeen = rank;
+        }
+        e.rows++;
+        return e.item;
+    }
+
+    /** Distinct items, in the order their first row appears in the sheet. */
+    public List<Item> getItems() {
+        List<Entry> entries = sortedEntries();
+        List<Item> items = new ArrayList<>(entries.size());
+        for (Entry e : entries)
+            items.add(e.item);
+        return items;
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    /** Number of product rows that were folded into an already registered item. */
+    public int getMergedRowCount() {
+        int merged = 0;
+        for (Entry e : byKey.values())
+            merged += e.rows - 1;
+        return merged;
+    }
+
+    /** Item name to number of product rows that resolved to it, in sheet order. */
+    public Map<String, Integer> getRowCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Entry e : sortedEntries())
+            counts.put(e.item.getName(), e.rows);
+        return counts;
+    }
+
+    private List<Entry> sortedEntries() {
+        List<Entry> entries = new ArrayList<>(byKey.values());
+        entries.sort(Comparator.comparingLong(e -> e.firstSeen));
+        return entries;
+    }
+}
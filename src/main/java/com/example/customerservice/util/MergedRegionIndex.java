@@ -0,0 +1,74 @@
+package com.example.customerservice.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * "Is this cell merged?" for a whole sheet, answered in O(log n). Built once from
+ * sheet.getMergedRegions(): for every column, the row spans covered by merged
+ * regions are kept as sorted, non-overlapping intervals and looked up by binary
+ * search. The index is a snapshot; build a new one after merging or unmerging.
+ */
+public class MergedRegionIndex {
+
+    // column -> { starts, ends } of disjoint row intervals, sorted by start
+    private final Map<Integer, int[][]> spansByColumn = new HashMap<>();
+
+    public MergedRegionIndex(List<CellRangeAddress> regions) {
+        Map<Integer, List<int[]>> raw = new HashMap<>();
+        for (CellRangeAddress region : regions)
+            for (int col = region.getFirstColumn(); col <= region.getLastColumn(); col++)
+                raw.computeIfAbsent(col, c -> new ArrayList<>())
+                        .add(new int[] { region.getFirstRow(), region.getLastRow() });
+
+        for (Map.Entry<Integer, List<int[]>> e : raw.entrySet()) {
+            List<int[]> spans = e.getValue();
+            spans.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int[] starts = new int[spans.size()];
+            int[] ends = new int[spans.size()];
+            int n = 0;
+            for (int[] span : spans) {
+                if (n > 0 && span[0] <= ends[n - 1] + 1) {
+                    ends[n - 1] = Math.max(ends[n - 1], span[1]);
+                } else {
+                    starts[n] = span[0];
+                    ends[n] = span[1];
+                    n++;
+                }
+            }
+            spansByColumn.put(e.getKey(), new int[][] { Arrays.copyOf(starts, n), Arrays.copyOf(ends, n) });
+        }
+    }
+
+    public static MergedRegionIndex of(Sheet sheet) {
+        return new MergedRegionIndex(sheet.getMergedRegions());
+    }
+
+    /** True when (row, col) lies inside any merged region, as CellRangeAddress.isInRange. */
+    public boolean isMerged(int row, int col) {
+        int[][] spans = spansByColumn.get(col);
+        if (spans == null)
+            return false;
+        int[] starts = spans[0];
+        // last interval starting at or before row
+        int lo = 0;
+        int hi = starts.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= row) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found >= 0 && row <= spans[1][found];
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.customerservice.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a fixed set of substrings. Built once; a lookup
+ * reads each character of the text once, however many patterns there are.
+ * Empty patterns are ignored.
+ */
+public class MultiPatternMatcher {
+    // wide enough for a space, brackets and the Hebrew block in one table
+    private static final int DENSE_SPAN = 2048;
+
+    private static final class Node {
+        // only while building; freeze() moves the edges into the arrays below
+        Map<Character, Node> next = new HashMap<>();
+        // children by c - first when the keys span at most DENSE_SPAN chars, else sorted by key
+        char first;
+        Node[] table;
+        char[] keys;
+        Node[] children;
+        Node fail;
+        // indices of the patterns ending here, directly or through fail links
+        int[] outputs = new int[0];
+
+        Node child(char c) {
+            if (table != null) {
+                int i = c - first;
+                return i >= 0 && i < table.length ? table[i] : null;
+            }
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void freeze() {
+            TreeSet<Character> sorted = new TreeSet<>(next.keySet());
+            if (!sorted.isEmpty() && sorted.last() - sorted.first() < DENSE_SPAN) {
+                first = sorted.first();
+                table = new Node[sorted.last() - first + 1];
+                for (char c : sorted)
+                    table[c - first] = next.get(c);
+            } else {
+                keys = new char[sorted.size()];
+                children = new Node[keys.length];
+                int i = 0;
+                for (char c : sorted) {
+                    keys[i] = c;
+                    children[i++] = next.get(c);
+                }
+            }
+            next = null;
+        }
+    }
+
+    private final Node root = new Node();
+    private final List<String> patterns;
+
+    public MultiPatternMatcher(Collection<String> patterns) {
+        this.patterns = List.copyOf(patterns);
+        for (int p = 0; p < this.patterns.size(); p++) {
+            String pattern = this.patterns.get(p);
+            if (pattern.isEmpty())
+                continue;
+            Node node = root;
+            for (int i = 0; i < pattern.length(); i++)
+                node = node.next.computeIfAbsent(pattern.charAt(i), c -> new Node());
+            node.outputs = append(node.outputs, new int[] { p });
+        }
+        linkFailures();
+    }
+
+    private void linkFailures() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        // the maps are read until the last fail link is set, so nodes are frozen afterwards
+        List<Node> nodes = new ArrayList<>(List.of(root));
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            nodes.add(node);
+            for (Map.Entry<Character, Node> e : node.next.entrySet()) {
+                Node child = e.getValue();
+                Node f = node.fail;
+                while (f != null && !f.next.containsKey(e.getKey()))
+                    f = f.fail;
+                child.fail = f == null ? root : f.next.get(e.getKey());
+                child.outputs = append(child.outputs, child.fail.outputs);
+                queue.add(child);
+            }
+        }
+        for (Node node : nodes)
+            node.freeze();
+    }
+
+    private static int[] append(int[] a, int[] b) {
+        if (b.length == 0)
+            return a;
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /** True when {@code text} contains at least one of the patterns, as any text.contains(p). */
+    public boolean containsAny(CharSequence text) {
+        if (text == null)
+            return false;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            if (node.outputs.length > 0)
+                return true;
+        }
+        return false;
+    }
+
+    /** Indices (into {@link #getPatterns()}) of every pattern that occurs in {@code text}. */
+    public BitSet find(CharSequence text) {
+        BitSet found = new BitSet(patterns.size());
+        if (text == null)
+            return found;
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = step(node, text.charAt(i));
+            for (int p : node.outputs)
+                found.set(p);
+        }
+        return found;
+    }
+
+    private Node step(Node node, char c) {
+        while (true) {
+            Node next = node.child(c);
+            if (next != null)
+                return next;
+            if (node == root)
+                return root;
+            node = node.fail;
+        }
+    }
+}
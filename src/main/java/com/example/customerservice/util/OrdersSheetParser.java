@@ -0,0 +1,297 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.model.Customer;
+import com.example.customerservice.model.Item;
+import com.example.customerservice.model.Item.ItemType;
+import com.example.customerservice.model.Order;
+import com.example.customerservice.model.OrderItem;
+import com.example.customerservice.util.OrdersSheetReader.RowHandler;
+import com.example.customerservice.util.OrdersSheetReader.SheetCell;
+import com.example.customerservice.util.OrdersSheetReader.SheetRow;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.example.customerservice.util.ExcelProcess.ISUF_LOD;
+import static com.example.customerservice.util.ExcelProcess.strToFloat;
+
+/**
+ * Turns the rows of the weekly orders sheet into Customer / Order / OrderItem /
+ * Item entities in a single pass. Rows are pushed in by {@link OrdersSheetReader}
+ * and each row is fed to two independent cursors, one per column group ({0,1,2}
+ * and {4,5,6}), that track the customer block they are in.
+ *
+ * The output matches the old column-group-at-a-time loop: orders and order
+ * items are kept per cursor and returned group 0 first, and a new customer or
+ * item takes its name, phone and price from the occurrence that loop would have
+ * seen first (lowest column group, then lowest row). Each order carries that
+ * group/row position as its source key, which the persister uses to relink
+ * order items.
+ *
+ * Customers are matched by lower-cased name against the ones already parsed;
+ * matching against stored customers happens once, after the pass, through
+ * {@link #resolveCustomers(Function)}. Products are deduplicated through an
+ * {@link ItemRegistry}.
+ */
+public class OrdersSheetParser implements RowHandler {
+    public static final int[][] COLUMN_SETS = new int[][] { { 0, 1, 2 }, { 4, 5, 6 } };
+    private static final int MAX_SKIPPED_SAMPLES = 50;
+
+    private final LocalDateTime uploadedAt;
+
+    private final ColumnCursor[] cursors;
+
+    private final List<Customer> customers = new ArrayList<>();
+    private final Map<String, Customer> customersByName = new HashMap<>();
+    private final ItemRegistry itemRegistry = new ItemRegistry();
+
+    private int rowsRead;
+    private int customersReused;
+    private final Map<String, Integer> skippedRows = new LinkedHashMap<>();
+    private final List<String> skippedSamples = new ArrayList<>();
+    // position in the old group-then-row scan order of the header that created the customer
+    private final Map<Customer, Long> firstSeen = new IdentityHashMap<>();
+
+    /**
+     * @param uploadedAt timestamp stamped on every parsed order
+     */
+    public OrdersSheetParser(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+        this.cursors = new ColumnCursor[COLUMN_SETS.length];
+        for (int g = 0; g < COLUMN_SETS.length; g++)
+            cursors[g] = new ColumnCursor(g, COLUMN_SETS[g]);
+    }
+
+    @Override
+    public void row(SheetRow row) {
+        rowsRead++;
+        for (ColumnCursor cursor : cursors)
+            cursor.row(row);
+    }
+
+    /**
+     * Swaps parsed customers for stored ones with the same name. The resolver gets
+     * every distinct lower-cased name seen in the sheet and returns the stored
+     * customers keyed the same way, so one query covers the whole import. Matched
+     * customers are dropped from {@link #getCustomers()} and their orders point at
+     * the stored entity.
+     */
+    public void resolveCustomers(Function<Collection<String>, Map<String, Customer>> resolver) {
+        if (customersByName.isEmpty())
+            return;
+        Map<String, Customer> stored = resolver.apply(customersByName.keySet());
+        if (stored == null || stored.isEmpty())
+            return;
+        Map<Customer, Customer> replaced = new IdentityHashMap<>();
+        for (Map.Entry<String, Customer> e : customersByName.entrySet()) {
+            Customer existing = stored.get(e.getKey());
+            if (existing != null)
+                replaced.put(e.getValue(), existing);
+        }
+        if (replaced.isEmpty())
+            return;
+        customersReused = replaced.size();
+        customers.removeIf(replaced::containsKey);
+        customersByName.keySet().removeIf(stored::containsKey);
+        for (ColumnCursor cursor : cursors) {
+            for (Order order : cursor.orders) {
+                Customer existing = replaced.get(order.getCustomer());
+                if (existing != null)
+                    order.setCustomer(existing);
+            }
+        }
+    }
+
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /** Distinct sheet customers that matched a stored customer in {@link #resolveCustomers}. */
+    public int getCustomersReused() {
+        return customersReused;
+    }
+
+    /** Reason to number of rows inside a customer block that produced no order item. */
+    public Map<String, Integer> getSkippedRows() {
+        return skippedRows;
+    }
+
+    /**
+     * The first few skipped rows, as "row 12, group 2: reason (product)". Fee and
+     * total rows are only counted, since every block has them.
+     */
+    public List<String> getSkippedSamples() {
+        return skippedSamples;
+    }
+
+    private void skip(int group, int rowNum, String reason, String detail) {
+        skippedRows.merge(reason, 1, Integer::sum);
+        if (skippedSamples.size() < MAX_SKIPPED_SAMPLES)
+            skippedSamples.add("row " + (rowNum + 1) + ", group " + (group + 1) + ": " + reason
+                    + (detail == null || detail.isEmpty() ? "" : " (" + detail + ")"));
+    }
+
+    public List<Customer> getCustomers() {
+        List<Customer> sorted = new ArrayList<>(customers);
+        sorted.sort(Comparator.comparingLong(firstSeen::get));
+        return sorted;
+    }
+
+    public List<Item> getItems() {
+        return itemRegistry.getItems();
+    }
+
+    /** Product deduplication stats for this import: distinct items and rows merged into them. */
+    public ItemRegistry getItemRegistry() {
+        return itemRegistry;
+    }
+
+    public List<Order> getOrders() {
+        List<Order> orders = new ArrayList<>();
+        for (ColumnCursor cursor : cursors)
+            orders.addAll(cursor.orders);
+        return orders;
+    }
+
+    public List<OrderItem> getOrderItems() {
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (ColumnCursor cursor : cursors)
+            orderItems.addAll(cursor.orderItems);
+        return orderItems;
+    }
+
+    /** True when the header at {@code rank} comes before the one that created {@code customer}. */
+    private boolean seenEarlier(Customer customer, long rank) {
+        Long current = firstSeen.get(customer);
+        return current != null && rank < current;
+    }
+
+    private final class ColumnCursor {
+        private final int group;
+        private final int[] colSet;
+        private final List<Order> orders = new ArrayList<>();
+        private final List<OrderItem> orderItems = new ArrayList<>();
+        private Customer currentCustomer;
+        private Order currentOrder;
+
+        ColumnCursor(int group, int[] colSet) {
+            this.group = group;
+            this.colSet = colSet;
+        }
+
+        void row(SheetRow row) {
+            SheetCell firstCell = row.getCell(colSet[0]);
+            long rank = ((long) group << 32) | row.getRowNum();
+
+            if (firstCell != null && firstCell.getType() == CellType.STRING
+                    && firstCell.getValue().contains(ISUF_LOD)) {
+                startCustomer(firstCell.getValue(), row.getRowNum(), rank);
+            } else if (currentCustomer != null && currentOrder != null) {
+                addProduct(row, rank);
+            }
+        }
+
+        private void startCustomer(String header, int rowNum, long rank) {
+            String[] parts = header.split(ISUF_LOD);
+            String customerName = parts.length > 0 ? parts[0].trim() : null;
+            // Keep only last 6 digits for ID / privacy
+            String phone = maskToLast6(parts.length > 1 ? parts[1].trim() : "");
+
+            if (customerName == null || customerName.isEmpty()) {
+                skip(group, rowNum, "header without customer name", phone);
+                currentCustomer = null;
+                currentOrder = null;
+                return;
+            }
+
+            // stored customers are matched later in one query, see resolveCustomers
+            String key = customerName.toLowerCase(Locale.ROOT);
+            Customer existing = customersByName.get(key);
+            if (existing == null) {
+                Customer nc = new Customer();
+                nc.setName(customerName);
+                nc.setPhones(phone);
+                customers.add(nc);
+                customersByName.put(key, nc);
+                firstSeen.put(nc, rank);
+                currentCustomer = nc;
+            } else {
+                if (seenEarlier(existing, rank)) {
+                    existing.setName(customerName);
+                    existing.setPhones(phone);
+                    firstSeen.put(existing, rank);
+                }
+                currentCustomer = existing;
+            }
+
+            Order newOrder = new Order();
+            newOrder.setCustomer(currentCustomer);
+            newOrder.setDate(LocalDate.now());
+            newOrder.setUploadedAt(uploadedAt);
+            newOrder.setSourceKey(rank);
+            orders.add(newOrder);
+            currentOrder = newOrder;
+        }
+
+        private void addProduct(SheetRow row, long rank) {
+            SheetCell productCell = row.getCell(colSet[0]);
+            SheetCell quantityCell = row.getCell(colSet[1]);
+            SheetCell priceCell = row.getCell(colSet[2]);
+
+            // blank spacer rows and the "מוצר" title row are part of the layout, not skips
+            if (productCell == null || productCell.getType() != CellType.STRING
+                    || "מוצר".equals(productCell.getValue()) || productCell.getValue().isEmpty())
+                return;
+            if (quantityCell == null || priceCell == null) {
+                skip(group, row.getRowNum(), "missing quantity or price cell", productCell.getValue());
+                return;
+            }
+
+            String product = productCell.getValue().replace("\"", "");
+            String quantityStr = quantityCell.getValue();
+            if (quantityStr.isBlank()) {
+                // every block ends with fee/total rows that carry a price but no quantity
+                skippedRows.merge("no quantity (fee, total or note row)", 1, Integer::sum);
+                return;
+            }
+
+            float quantity = strToFloat(quantityStr.split(" ")[0].trim());
+            float totalValue = strToFloat(priceCell.getValue());
+            float pricePerUnitOrKg = quantity != 0 ? totalValue / quantity : 0f;
+            ItemType itemType = quantityStr.contains("יח") ? ItemType.unit : ItemType.kg;
+
+            if (quantity == 0 || pricePerUnitOrKg <= 0) {
+                skip(group, row.getRowNum(), "zero quantity or price", product);
+                return;
+            }
+
+            Item item = itemRegistry.merge(product, pricePerUnitOrKg, itemType, rank);
+            OrderItem oi = new OrderItem();
+            oi.setOrder(currentOrder);
+            oi.setItem(item);
+            oi.setAmount(quantity);
+            oi.setTotalPrice(totalValue);
+            orderItems.add(oi);
+        }
+    }
+
+    public static String maskToLast6(String phone) {
+        if (phone == null)
+            return "";
+        String digits = phone.replaceAll("\\D", "");
+        if (digits.length() <= 6)
+            return digits;
+        return digits.substring(digits.length() - 6);
+    }
+}
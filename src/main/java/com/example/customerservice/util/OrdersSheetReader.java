@@ -0,0 +1,265 @@
+package com.example.customerservice.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Streaming reader for the first sheet of an .xlsx workbook, built on POI's
+ * event model (XSSFReader + SAX). Rows are handed to a {@link RowHandler} one at
+ * a time and are not retained, so heap use does not grow with the sheet size.
+ *
+ * Cell types and values follow what XSSFCell would report for the same cell, so
+ * code written against the DOM model (row.getCell(i) == null, CellType.STRING
+ * checks, ...) keeps its meaning. A handler that has seen enough can end the
+ * read early through {@link RowHandler#isDone()}.
+ */
+public class OrdersSheetReader {
+
+    public interface RowHandler {
+        void row(SheetRow row);
+
+        /** Checked after every row; returning true stops the read there. */
+        default boolean isDone() {
+            return false;
+        }
+    }
+
+    // thrown out of the SAX parse when the handler is done, and caught in read()
+    private static final class StopReading extends SAXException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    public static final class SheetCell {
+        private final CellType type;
+        private final String value;
+        private final int styleIndex;
+
+        SheetCell(CellType type, String value, int styleIndex) {
+            this.type = type;
+            this.value = value;
+            this.styleIndex = styleIndex;
+        }
+
+        public CellType getType() {
+            return type;
+        }
+
+        /** String value for STRING cells, String.valueOf(double) for NUMERIC, "" for BLANK. */
+        public String getValue() {
+            return value;
+        }
+
+        /** Index into the workbook's cell styles (the "s" attribute), 0 when absent. */
+        public int getStyleIndex() {
+            return styleIndex;
+        }
+    }
+
+    public static final class SheetRow {
+        private final int rowNum;
+        private final SheetCell[] cells;
+        private final float heightInPoints;
+
+        SheetRow(int rowNum, SheetCell[] cells, float heightInPoints) {
+            this.rowNum = rowNum;
+            this.cells = cells;
+            this.heightInPoints = heightInPoints;
+        }
+
+        /** Zero-based row index, as Row.getRowNum(). */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /** Returns null when the cell is not present in the sheet, as Row.getCell(). */
+        public SheetCell getCell(int col) {
+            return col >= 0 && col < cells.length ? cells[col] : null;
+        }
+
+        /** One past the last present cell, as Row.getLastCellNum() (0 for an empty row). */
+        public int getLastCellNum() {
+            return cells.length;
+        }
+
+        /** Custom row height in points, or -1 when the row uses the default height. */
+        public float getHeightInPoints() {
+            return heightInPoints;
+        }
+    }
+
+    public static void read(File file, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            read(pkg, handler);
+        }
+    }
+
+    public static void read(InputStream in, RowHandler handler) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(in)) {
+            read(pkg, handler);
+        }
+    }
+
+    public static void read(OPCPackage pkg, RowHandler handler) throws Exception {
+        XSSFReader reader = new XSSFReader(pkg);
+        SharedStrings sst = new ReadOnlySharedStringsTable(pkg);
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        if (!sheets.hasNext())
+            return;
+        try (InputStream sheet = sheets.next()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new SheetHandler(sst, handler));
+            parser.parse(new InputSource(sheet));
+        } catch (StopReading done) {
+            // the handler has all it needs; the rest of the sheet is not parsed
+        }
+    }
+
+    private static boolean isTrue(String xmlBoolean) {
+        return "1".equals(xmlBoolean) || "true".equals(xmlBoolean);
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+        private final SharedStrings sst;
+        private final RowHandler handler;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder inlineText = new StringBuilder();
+
+        private SheetCell[] cells = new SheetCell[8];
+        private int rowNum = -1;
+        private float rowHeight;
+        private int lastCol;
+        private int col;
+        private String cellT;
+        private int cellStyle;
+        private boolean hasFormula;
+        private boolean hasValue;
+        private boolean hasInlineString;
+        private boolean inValue;
+        private boolean inInlineText;
+
+        SheetHandler(SharedStrings sst, RowHandler handler) {
+            this.sst = sst;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "row":
+                    String r = attrs.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    String ht = attrs.getValue("ht");
+                    rowHeight = ht != null && isTrue(attrs.getValue("customHeight")) ? Float.parseFloat(ht) : -1;
+                    Arrays.fill(cells, null);
+                    lastCol = -1;
+                    break;
+                case "c":
+                    String ref = attrs.getValue("r");
+                    col = ref != null ? new CellReference(ref).getCol() : lastCol + 1;
+                    cellT = attrs.getValue("t");
+                    String s = attrs.getValue("s");
+                    cellStyle = s != null ? Integer.parseInt(s) : 0;
+                    hasFormula = false;
+                    hasValue = false;
+                    hasInlineString = false;
+                    text.setLength(0);
+                    inlineText.setLength(0);
+                    break;
+                case "f":
+                    hasFormula = true;
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                case "t":
+                    inInlineText = "inlineStr".equals(cellT);
+                    hasInlineString |= inInlineText;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue)
+                text.append(ch, start, length);
+            else if (inInlineText)
+                inlineText.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "t":
+                    inInlineText = false;
+                    break;
+                case "c":
+                    if (col >= cells.length)
+                        cells = Arrays.copyOf(cells, Math.max(col + 1, cells.length * 2));
+                    cells[col] = toCell();
+                    lastCol = col;
+                    break;
+                case "row":
+                    int width = lastCol + 1;
+                    handler.row(new SheetRow(rowNum, Arrays.copyOf(cells, Math.max(width, 0)), rowHeight));
+                    if (handler.isDone())
+                        throw new StopReading();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private SheetCell toCell() {
+            String raw = text.toString();
+            if (hasFormula)
+                return new SheetCell(CellType.FORMULA, raw, cellStyle);
+            if (cellT == null || "n".equals(cellT)) {
+                if (!hasValue)
+                    return new SheetCell(CellType.BLANK, "", cellStyle);
+                try {
+                    return new SheetCell(CellType.NUMERIC, String.valueOf(Double.parseDouble(raw)), cellStyle);
+                } catch (NumberFormatException e) {
+                    return new SheetCell(CellType.NUMERIC, raw, cellStyle);
+                }
+            }
+            switch (cellT) {
+                case "s":
+                    return new SheetCell(CellType.STRING,
+                            raw.isEmpty() ? "" : sst.getItemAt(Integer.parseInt(raw.trim())).getString(), cellStyle);
+                case "inlineStr":
+                    // XSSFCell prefers <is> and only falls back to <v> when it is missing
+                    return new SheetCell(CellType.STRING, hasInlineString ? inlineText.toString() : raw, cellStyle);
+                case "str":
+                    return new SheetCell(CellType.STRING, raw, cellStyle);
+                case "b":
+                    return new SheetCell(CellType.BOOLEAN, String.valueOf("1".equals(raw.trim())), cellStyle);
+                case "e":
+                    return new SheetCell(CellType.ERROR, raw, cellStyle);
+                default:
+                    return new SheetCell(CellType.STRING, raw, cellStyle);
+            }
+        }
+    }
+}
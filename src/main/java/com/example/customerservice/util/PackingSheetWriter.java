@@ -0,0 +1,207 @@
+package com.example.customerservice.util;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.example.customerservice.util.OrdersSheetReader.SheetCell;
+import com.example.customerservice.util.OrdersSheetReader.SheetRow;
+
+/**
+ * Writes the printable packing workbook from an orders export without loading
+ * either side into memory. The source sheet is read with SAX and rebuilt row by
+ * row in an {@link SXSSFWorkbook} that keeps only {@link #ROW_WINDOW} rows in
+ * memory, running {@link ExcelProcess#packingSheetFormatter} on each row as it
+ * is created.
+ *
+ * Carried over from the source: cell values and styles, custom row heights,
+ * column widths, merged regions, page breaks and the right-to-left view. Formula
+ * cells are written with their cached values.
+ */
+public class PackingSheetWriter {
+    public static final int ROW_WINDOW = 100;
+
+    /**
+     * Formats the first sheet of {@code source} and writes the result to
+     * {@code out}. {@code stringOverrides} replaces the text of individual cells
+     * before formatting (the Paybox flow uses it to rewrite customer headers);
+     * the blocks of {@code blankCustomers} are blanked.
+     */
+    public static void write(OPCPackage source, Map<CellAddress, String> stringOverrides,
+            MultiPatternMatcher blankCustomers, OutputStream out) throws Exception {
+        XSSFReader reader = new XSSFReader(source);
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        if (!sheets.hasNext())
+            throw new IllegalArgumentException("Workbook has no sheets");
+        SheetLayout layout = new SheetLayout();
+        String sheetName;
+        try (InputStream sheet = sheets.next()) {
+            sheetName = sheets.getSheetName();
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(layout);
+            parser.parse(new InputSource(sheet));
+        }
+        StylesTable sourceStyles = reader.getStylesTable();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
+            layout.applyTo(sheet);
+
+            Map<Integer, CellStyle> styles = new HashMap<>();
+            SheetFormatter formatter = ExcelProcess.packingSheetFormatter(blankCustomers);
+            formatter.start(sheet);
+            OrdersSheetReader.read(source, sourceRow -> {
+                Row row = sheet.createRow(sourceRow.getRowNum());
+                if (sourceRow.getHeightInPoints() >= 0)
+                    row.setHeightInPoints(sourceRow.getHeightInPoints());
+                copyCells(sourceRow, row, styles, sourceStyles, workbook, stringOverrides);
+                formatter.row(row);
+            });
+            formatter.finish(sheet);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void copyCells(SheetRow sourceRow, Row row, Map<Integer, CellStyle> styles,
+            StylesTable sourceStyles, SXSSFWorkbook workbook, Map<CellAddress, String> stringOverrides) {
+        for (int col = 0; col < sourceRow.getLastCellNum(); col++) {
+            SheetCell sourceCell = sourceRow.getCell(col);
+            if (sourceCell == null)
+                continue;
+            Cell cell = row.createCell(col);
+            cell.setCellStyle(styles.computeIfAbsent(sourceCell.getStyleIndex(), s -> {
+                CellStyle style = workbook.createCellStyle();
+                style.cloneStyleFrom(sourceStyles.getStyleAt(s));
+                return style;
+            }));
+            String override = stringOverrides.get(new CellAddress(sourceRow.getRowNum(), col));
+            if (override != null) {
+                cell.setCellValue(override);
+                continue;
+            }
+            setValue(cell, sourceCell);
+        }
+    }
+
+    private static void setValue(Cell cell, SheetCell sourceCell) {
+        String value = sourceCell.getValue();
+        switch (sourceCell.getType()) {
+            case STRING:
+            case ERROR:
+                cell.setCellValue(value);
+                break;
+            case NUMERIC:
+            case FORMULA:
+                try {
+                    cell.setCellValue(Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    cell.setCellValue(value);
+                }
+                break;
+            case BOOLEAN:
+                cell.setCellValue(Boolean.parseBoolean(value));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** Sheet settings outside sheetData; merge cells and breaks follow it, so they need their own pass. */
+    private static final class SheetLayout extends DefaultHandler {
+        private boolean rightToLeft;
+        private final List<double[]> columns = new ArrayList<>();
+        private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+        private final List<Integer> rowBreaks = new ArrayList<>();
+        private final List<Integer> columnBreaks = new ArrayList<>();
+        private boolean inRowBreaks;
+        private boolean inColumnBreaks;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "sheetView":
+                    rightToLeft = isTrue(attrs.getValue("rightToLeft"));
+                    break;
+                case "col":
+                    String width = attrs.getValue("width");
+                    columns.add(new double[] { Integer.parseInt(attrs.getValue("min")) - 1,
+                            Integer.parseInt(attrs.getValue("max")) - 1,
+                            width != null ? Double.parseDouble(width) : -1,
+                            isTrue(attrs.getValue("hidden")) ? 1 : 0 });
+                    break;
+                case "mergeCell":
+                    mergedRegions.add(CellRangeAddress.valueOf(attrs.getValue("ref")));
+                    break;
+                case "rowBreaks":
+                    inRowBreaks = true;
+                    break;
+                case "colBreaks":
+                    inColumnBreaks = true;
+                    break;
+                case "brk":
+                    int id = Integer.parseInt(attrs.getValue("id"));
+                    if (inRowBreaks)
+                        rowBreaks.add(id);
+                    else if (inColumnBreaks)
+                        columnBreaks.add(id);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if ("rowBreaks".equals(localName))
+                inRowBreaks = false;
+            else if ("colBreaks".equals(localName))
+                inColumnBreaks = false;
+        }
+
+        void applyTo(SXSSFSheet sheet) {
+            sheet.setRightToLeft(rightToLeft);
+            for (double[] c : columns) {
+                for (int col = (int) c[0]; col <= (int) c[1]; col++) {
+                    if (c[2] >= 0)
+                        sheet.setColumnWidth(col, (int) Math.round(c[2] * 256));
+                    if (c[3] == 1)
+                        sheet.setColumnHidden(col, true);
+                }
+            }
+            for (CellRangeAddress region : mergedRegions)
+                sheet.addMergedRegionUnsafe(region);
+            // a brk id is the first row/column after the break; setRowBreak takes the last one before it
+            for (int row : rowBreaks)
+                sheet.setRowBreak(row - 1);
+            for (int col : columnBreaks)
+                sheet.setColumnBreak(col - 1);
+        }
+    }
+
+    private static boolean isTrue(String xmlBoolean) {
+        return "1".equals(xmlBoolean) || "true".equals(xmlBoolean);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.util.OrdersSheetReader.RowHandler;
+import com.example.customerservice.util.OrdersSheetReader.SheetCell;
+import com.example.customerservice.util.OrdersSheetReader.SheetRow;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.customerservice.util.ExcelProcess.strToFloat;
+
+/**
+ * Streams the recent payments out of a Paybox export (name, phone, type,
+ * amount, date, -, package type in columns 0 to 6) through
+ * {@link OrdersSheetReader}; the export is never loaded as a workbook.
+ *
+ * Only "payment" rows dated on or after {@code since} are kept, and like the
+ * old backwards walk over the sheet, only those below the last older payment.
+ * Paybox lists payments oldest first, so the older history is skipped row by
+ * row without being kept. The read only ends early once the rows are known to
+ * run newest first: after a payment older than the one above it, the first
+ * payment before {@code since} ends it. Rows with equal times tell nothing
+ * about the order.
+ */
+public class PayboxExportReader implements RowHandler {
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public static final class Payment {
+        private final String name;
+        private final String phone;
+        private final float amount;
+        private final String packageType;
+        private final LocalDateTime paidAt;
+
+        public Payment(String name, String phone, float amount, String packageType, LocalDateTime paidAt) {
+            this.name = name;
+            this.phone = phone;
+            this.amount = amount;
+            this.packageType = packageType;
+            this.paidAt = paidAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** In local form: the export's "972-" prefix is replaced by "0". */
+        public String getPhone() {
+            return phone;
+        }
+
+        public float getAmount() {
+            return amount;
+        }
+
+        public String getPackageType() {
+            return packageType;
+        }
+
+        public LocalDateTime getPaidAt() {
+            return paidAt;
+        }
+    }
+
+    private final LocalDate since;
+    private final List<Payment> payments = new ArrayList<>();
+    private LocalDateTime previous;
+    // null until two payments with different times have been read
+    private Boolean newestFirst;
+    private boolean done;
+
+    public PayboxExportReader(LocalDate since) {
+        this.since = since;
+    }
+
+    /** The export's payments since {@code since}, newest first. */
+    public static List<Payment> read(InputStream export, LocalDate since) throws Exception {
+        PayboxExportReader reader = new PayboxExportReader(since);
+        OrdersSheetReader.read(export, reader);
+        return reader.getPayments();
+    }
+
+    @Override
+    public void row(SheetRow row) {
+        SheetCell name = row.getCell(0);
+        SheetCell phone = row.getCell(1);
+        SheetCell type = row.getCell(2);
+        SheetCell amount = row.getCell(3);
+        SheetCell date = row.getCell(4);
+        SheetCell packageType = row.getCell(6);
+        if (name == null || phone == null || type == null || date == null || packageType == null)
+            return;
+        if (!"payment".equalsIgnoreCase(type.getValue().trim()))
+            return;
+        LocalDateTime paidAt;
+        try {
+            paidAt = LocalDateTime.parse(date.getValue().trim(), DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return;
+        }
+        if (newestFirst == null && previous != null && !paidAt.isEqual(previous))
+            newestFirst = paidAt.isBefore(previous);
+        previous = paidAt;
+
+        if (paidAt.toLocalDate().isBefore(since)) {
+            // newest first: everything below is older still
+            if (Boolean.TRUE.equals(newestFirst) && !payments.isEmpty())
+                done = true;
+            else
+                payments.clear();
+            return;
+        }
+        payments.add(new Payment(name.getValue().trim(), phone.getValue().replace("972-", "0").trim(),
+                amount == null ? 0f : strToFloat(amount.getValue()), packageType.getValue().trim(), paidAt));
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * The payments read so far, newest first. Payments made at the same time come
+     * in the order the backwards walk met them, the lower row first.
+     */
+    public List<Payment> getPayments() {
+        List<Payment> result = new ArrayList<>(payments);
+        Collections.reverse(result);
+        // stable, so already newest-first (oldest-first exports) costs one pass
+        result.sort(Comparator.comparing(Payment::getPaidAt).reversed());
+        return result;
+    }
+}
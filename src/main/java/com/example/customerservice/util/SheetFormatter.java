@@ -0,0 +1,101 @@
+package com.example.customerservice.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Applies a list of formatting rules to a sheet in a single top-to-bottom walk.
+ * Each row is handed to every rule, in registration order, before the walk moves
+ * to the next row, so a rule always sees a row exactly as the rules registered
+ * before it left it - the same state it would see if each rule swept the whole
+ * sheet on its own, one after the other, as long as a rule only changes the row
+ * it is visiting.
+ */
+public class SheetFormatter {
+
+    /**
+     * A formatting rule. {@link #row} is called once per existing row, top to
+     * bottom; {@link #start} and {@link #finish} bracket the walk for sheet-level
+     * settings and for work a rule batches until every row has been seen.
+     */
+    @FunctionalInterface
+    public interface Rule {
+        default void start(Sheet sheet) {
+        }
+
+        void row(Row row);
+
+        default void finish(Sheet sheet) {
+        }
+    }
+
+    /** A rule that visits every existing cell of every row. */
+    public static Rule cells(Consumer<Cell> visitor) {
+        return row -> {
+            for (Cell cell : row)
+                visitor.accept(cell);
+        };
+    }
+
+    /** A rule with no per-row work, for sheet-level settings such as widths or print setup. */
+    public static Rule sheet(Consumer<Sheet> action) {
+        return new Rule() {
+            @Override
+            public void finish(Sheet sheet) {
+                action.accept(sheet);
+            }
+
+            @Override
+            public void row(Row row) {
+            }
+        };
+    }
+
+    private final List<Rule> rules;
+
+    public SheetFormatter(List<Rule> rules) {
+        this.rules = new ArrayList<>(rules);
+    }
+
+    public static SheetFormatter of(Rule... rules) {
+        return new SheetFormatter(Arrays.asList(rules));
+    }
+
+    public void format(Sheet sheet) {
+        start(sheet);
+        for (int r = sheet.getFirstRowNum(); r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null)
+                continue;
+            row(row);
+        }
+        finish(sheet);
+    }
+
+    /*
+     * Push-style use, for sheets that are written as they are built (SXSSF): call
+     * start() once, row() for each row as soon as it is filled in and before the
+     * next one is created, then finish(). Rules never go back to earlier rows.
+     */
+
+    public void start(Sheet sheet) {
+        for (Rule rule : rules)
+            rule.start(sheet);
+    }
+
+    public void row(Row row) {
+        for (Rule rule : rules)
+            rule.row(row);
+    }
+
+    public void finish(Sheet sheet) {
+        for (Rule rule : rules)
+            rule.finish(sheet);
+    }
+}
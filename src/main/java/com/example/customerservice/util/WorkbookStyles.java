@@ -0,0 +1,47 @@
+package com.example.customerservice.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Fonts and derived cell styles created by one format pass. A style derived from
+ * a (base style, font) pair is created once and shared by every cell that asks
+ * for the same pair, so bolding a thousand cells adds one style per distinct base
+ * style rather than one per cell.
+ *
+ * A registry belongs to the pass that created it and is only used on that pass's
+ * workbook, which is passed in rather than kept, so the registry never outlives
+ * the pass and never keeps a finished workbook reachable.
+ */
+public class WorkbookStyles {
+
+    private final Map<Long, CellStyle> derivedStyles = new HashMap<>();
+    private Font bold13Font;
+
+    /** Bold, 13pt font used for multi-unit quantities and highlighted item names. */
+    public Font bold13Font(Workbook workbook) {
+        if (bold13Font == null) {
+            bold13Font = workbook.createFont();
+            bold13Font.setBold(true);
+            bold13Font.setFontHeightInPoints((short) 13);
+        }
+        return bold13Font;
+    }
+
+    /** {@code base} with its font replaced by {@code font}; created on first use. */
+    public CellStyle withFont(Workbook workbook, CellStyle base, Font font) {
+        if (base.getFontIndex() == font.getIndex())
+            return base;
+        long key = ((base.getIndex() & 0xFFFFL) << 32) | font.getIndex();
+        return derivedStyles.computeIfAbsent(key, k -> {
+            CellStyle derived = workbook.createCellStyle();
+            derived.cloneStyleFrom(base);
+            derived.setFont(font);
+            return derived;
+        });
+    }
+}
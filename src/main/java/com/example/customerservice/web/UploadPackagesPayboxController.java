@@ -1,9 +1,18 @@
 package com.example.customerservice.web;
 
+import com.example.customerservice.config.ExcelFormatConfig;
 import com.example.customerservice.model.Customer;
 import com.example.customerservice.service.CustomerService;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.example.customerservice.service.OrdersFileStore;
+import com.example.customerservice.service.OrdersWorkbookCache;
+import com.example.customerservice.service.PaymentService;
+import com.example.customerservice.util.CustomerHeaderIndex;
+import com.example.customerservice.util.CustomerPhoneIndex;
+import com.example.customerservice.util.PackingSheetWriter;
+import com.example.customerservice.util.PayboxExportReader;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellAddress;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,11 +22,12 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.io.*;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -28,25 +38,33 @@ import static com.example.customerservice.util.ExcelProcess.*;
 public class UploadPackagesPayboxController {
 
     private final CustomerService customerService;
-    private final String ordersFolder = "uploaded_excels";
+    private final OrdersWorkbookCache ordersCache;
+    private final OrdersFileStore fileStore;
+    private final PaymentService paymentService;
+    private final ExcelFormatConfig excelFormat;
 
-    public UploadPackagesPayboxController(CustomerService customerService) {
+    public UploadPackagesPayboxController(CustomerService customerService, OrdersWorkbookCache ordersCache,
+            OrdersFileStore fileStore, PaymentService paymentService, ExcelFormatConfig excelFormat) {
         this.customerService = customerService;
+        this.ordersCache = ordersCache;
+        this.fileStore = fileStore;
+        this.paymentService = paymentService;
+        this.excelFormat = excelFormat;
     }
 
     @GetMapping
     public String form(org.springframework.ui.Model model) {
-        File latest = getLatestOrdersFile();
-        model.addAttribute("hasLatestOrders", latest != null);
+        model.addAttribute("hasLatestOrders", ordersCache.getLatest() != null);
         return "upload-packages-paybox";
     }
 
     @GetMapping("/download-orders-file")
     public ResponseEntity<InputStreamResource> downloadLatestOrders() throws IOException {
-        File latest = getLatestOrdersFile();
-        if (latest == null) {
+        OrdersWorkbookCache.Snapshot snapshot = ordersCache.getLatest();
+        if (snapshot == null) {
             return ResponseEntity.notFound().build();
         }
+        File latest = snapshot.getFile();
         InputStreamResource resource = new InputStreamResource(new FileInputStream(latest));
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + latest.getName() + "\"")
@@ -73,141 +91,122 @@ public class UploadPackagesPayboxController {
         return "redirect:/upload-packages-paybox";
     }
 
-    private File getLatestOrdersFile() {
-        File folder = new File(ordersFolder);
-        File[] files = folder.listFiles((dir, name) -> name.startsWith("items_orders_") && name.endsWith(".xlsx"));
-        if (files == null || files.length == 0)
-            return null;
-        return Arrays.stream(files).max(Comparator.comparingLong(File::lastModified)).orElse(null);
-    }
-
+    /**
+     * Rewrites the pickup line of every paying customer's header in the latest
+     * orders file and saves the result as a new formatted version. The recent
+     * payments are streamed out of the Paybox export by {@link PayboxExportReader},
+     * the ones not seen before are recorded through {@link PaymentService}, and
+     * the window's are matched to customers through a phone index built once per
+     * upload. The customers' header cells come from {@link OrdersWorkbookCache},
+     * usually already indexed, and the orders file is streamed once to write the
+     * new version, with the rewritten headers, into {@link OrdersFileStore}.
+     * Customers whose name heads more than one block get only the first header
+     * rewritten, and are reported.
+     */
     private String processPackagesExcel(InputStream packagesInput) throws Exception {
-        File ordersFile = getLatestOrdersFile();
-        if (ordersFile == null)
-            return "No orders file found to update.";
+        // one read covers both the payments not recorded yet and this week's window
+        LocalDate windowStart = paymentWindowStart(LocalDate.now());
+        LocalDateTime highWaterMark = paymentService.getHighWaterMark();
+        LocalDate since = highWaterMark == null ? LocalDate.MIN
+                : highWaterMark.toLocalDate().isBefore(windowStart) ? highWaterMark.toLocalDate() : windowStart;
+        List<PayboxExportReader.Payment> read = PayboxExportReader.read(packagesInput, since);
+        CustomerPhoneIndex customersByPhone = new CustomerPhoneIndex(customerService.findAll());
         StringBuilder alerts = new StringBuilder();
-
-        try (Workbook ordersWorkbook = new XSSFWorkbook(new FileInputStream(ordersFile))) {
-            try (Workbook packagesWorkbook = new XSSFWorkbook(packagesInput)) {
-                initializeStyles(ordersWorkbook);
-                Sheet packagesSheet = packagesWorkbook.getSheetAt(0);
-                Sheet ordersSheet = ordersWorkbook.getSheetAt(0);
-
-                List<Customer> allCustomers = customerService.findAll();
-
-                for (int r = packagesSheet.getLastRowNum(); r >= 0; r--) {
-                    Row row = packagesSheet.getRow(r);
-                    if (row == null)
-                        continue;
-                    Cell nameCell = row.getCell(0);
-                    Cell phoneCell = row.getCell(1);
-                    Cell typeCell = row.getCell(6);
-                    Cell paymentCell = row.getCell(2);
-                    Cell dateCell = row.getCell(4);
-                    if (nameCell == null || phoneCell == null || typeCell == null || paymentCell == null
-                            || dateCell == null)
-                        continue;
-                    if (!"payment".equalsIgnoreCase(paymentCell.getStringCellValue().trim()))
-                        continue;
-                    String dateStr = getCellValueAsString(dateCell).trim();
-                    LocalDateTime paymentDate;
-                    try {
-                        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-                        paymentDate = LocalDateTime.parse(dateStr, formatter);
-                    } catch (Exception ex) {
-                        continue;
-                    }
-                    LocalDate today = LocalDate.now().minusDays(8);
-                    LocalDate lastThursday = today.with(java.time.DayOfWeek.THURSDAY);
-                    if (!lastThursday.isBefore(today))
-                        lastThursday = lastThursday.minusWeeks(1);
-                    if (paymentDate.toLocalDate().isBefore(lastThursday))
-                        break;
-                    String phone = phoneCell.getStringCellValue().replace("972-", "0").trim();
-                    String customerName = nameCell.getStringCellValue().trim();
-                    String packageType = typeCell.getStringCellValue().trim();
-
-                    Customer matchedCustomer = allCustomers.stream()
-                            .filter(c -> c.getPhones() != null && c.getPhones().contains(phone))
-                            .findFirst().orElse(null);
-
-                    if (matchedCustomer == null) {
-                        alerts.append("Customer ").append(customerName).append(" with phone ").append(phone)
-                                .append(" was not found\n");
-                        continue;
-                    }
-
-                    boolean updated = false;
-                    for (Row orderRow : ordersSheet) {
-                        for (Cell cell : orderRow) {
-                            if (cell.getCellType() == CellType.STRING
-                                    && cell.getStringCellValue().contains(matchedCustomer.getName())) {
-                                String updatedValue = cell.getStringCellValue();
-                                if ("אריזה".equalsIgnoreCase(packageType)) {
-                                    updatedValue = updatedValue.replace(ISUF_LOD, "אריזה");
-                                } else if ("משלוח".equalsIgnoreCase(packageType)) {
-                                    String address = matchedCustomer.getAddress();
-                                    if (address == null || address.isEmpty()) {
-                                        alerts.append("Customer ").append(matchedCustomer.getName())
-                                                .append(" has no address\n");
-                                    }
-                                    updatedValue = updatedValue.replace(ISUF_LOD,
-                                            "משלוח ל" + (address != null ? address : ""));
-                                }
-                                cell.setCellValue(updatedValue);
-                                updated = true;
-                                break;
-                            }
-                        }
-                        if (updated)
-                            break;
-                    }
-                    if (!updated)
-                        alerts.append("Order for customer ").append(matchedCustomer.getName())
-                                .append(" was not found\n");
-                }
-
-                blankCustomers(ordersSheet);
-                clearSpecificValues(ordersSheet);
-                clearNonMergedCellValuesInColumns(ordersSheet);
-                makeColumnsInvisible(ordersSheet);
-                cleanupItemNames(ordersSheet);
-                boldQuantities(ordersSheet);
-                setColumnWidths(ordersSheet);
-                setPageSetup(ordersSheet);
-
-                String timestamp = new java.text.SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-                String newFileName = "items_orders_" + timestamp + ".xlsx";
-                File updatedFile = new File(ordersFolder, newFileName);
-                try (FileOutputStream fos = new FileOutputStream(updatedFile)) {
-                    ordersWorkbook.write(fos);
+        recordPayments(read, customersByPhone, alerts);
+
+        OrdersWorkbookCache.Snapshot latest = ordersCache.getLatest();
+        if (latest == null)
+            return alerts + "No orders file found to update.";
+        File ordersFile = latest.getFile();
+
+        // newest first, up to the first payment before the window; null customer = phone not found
+        List<PayboxExportReader.Payment> payments = new ArrayList<>();
+        for (PayboxExportReader.Payment payment : read) {
+            if (payment.getPaidAt().toLocalDate().isBefore(windowStart))
+                break;
+            payments.add(payment);
+        }
+        List<Customer> payers = new ArrayList<>();
+        for (PayboxExportReader.Payment payment : payments)
+            payers.add(customersByPhone.find(payment.getPhone()));
+
+        CustomerHeaderIndex headers = latest.getHeaders();
+        Map<String, List<CellAddress>> duplicates = headers.getDuplicates();
+        Set<String> reportedDuplicates = new HashSet<>();
+
+        Map<CellAddress, String> overrides = new HashMap<>();
+        for (int i = 0; i < payers.size(); i++) {
+            PayboxExportReader.Payment payment = payments.get(i);
+            Customer matchedCustomer = payers.get(i);
+            if (matchedCustomer == null) {
+                alerts.append("Customer ").append(payment.getName()).append(" with phone ")
+                        .append(payment.getPhone()).append(" was not found\n");
+                continue;
+            }
+            CellAddress header = headers.find(matchedCustomer.getName());
+            if (header == null) {
+                alerts.append("Order for customer ").append(matchedCustomer.getName())
+                        .append(" was not found\n");
+                continue;
+            }
+            String key = CustomerHeaderIndex.key(matchedCustomer.getName());
+            if (duplicates.containsKey(key) && reportedDuplicates.add(key)) {
+                alerts.append("Customer ").append(matchedCustomer.getName()).append(" appears ")
+                        .append(duplicates.get(key).size()).append(" times in the orders file, only ")
+                        .append(header.formatAsString()).append(" was updated\n");
+            }
+            String packageType = payment.getPackageType();
+            String updatedValue = overrides.getOrDefault(header, headers.getValue(header));
+            if ("אריזה".equalsIgnoreCase(packageType)) {
+                updatedValue = updatedValue.replace(ISUF_LOD, "אריזה");
+            } else if ("משלוח".equalsIgnoreCase(packageType)) {
+                String address = matchedCustomer.getAddress();
+                if (address == null || address.isEmpty()) {
+                    alerts.append("Customer ").append(matchedCustomer.getName())
+                            .append(" has no address\n");
                 }
+                updatedValue = updatedValue.replace(ISUF_LOD,
+                        "משלוח ל" + (address != null ? address : ""));
             }
+            overrides.put(header, updatedValue);
         }
 
-        return "";
+        // the parent stays in place while the new version is written from it
+        fileStore.write(latest.getVersion(), "paybox", out -> {
+            try (OPCPackage orders = OPCPackage.open(ordersFile, PackageAccess.READ)) {
+                PackingSheetWriter.write(orders, overrides, excelFormat.getBlankCustomers(), out);
+            }
+        });
+
+        return alerts.toString();
     }
 
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null)
-            return "";
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue();
-                } catch (IllegalStateException e) {
-                    return cell.getCellFormula();
-                }
-            case BLANK:
-                return "";
-            default:
-                return "";
+    /**
+     * Records the export's new payments. When another upload stored some of them
+     * first, the clash on the unique key is reported and the payments are
+     * recorded again without the ones already stored.
+     */
+    private void recordPayments(List<PayboxExportReader.Payment> read, CustomerPhoneIndex customersByPhone,
+            StringBuilder alerts) {
+        try {
+            paymentService.record(read, customersByPhone);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            alerts.append("Another Paybox upload recorded some of these payments at the same time\n");
         }
+        try {
+            paymentService.record(read, customersByPhone);
+        } catch (DataIntegrityViolationException e) {
+            alerts.append("Payments were not recorded, upload the export again to record them\n");
+        }
+    }
+
+    /** Payments count from the last Thursday before the day eight days ago. */
+    private static LocalDate paymentWindowStart(LocalDate today) {
+        LocalDate eightDaysAgo = today.minusDays(8);
+        LocalDate lastThursday = eightDaysAgo.with(DayOfWeek.THURSDAY);
+        if (!lastThursday.isBefore(eightDaysAgo))
+            lastThursday = lastThursday.minusWeeks(1);
+        return lastThursday;
     }
 }
@@ -0,0 +1,191 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.Order;
+import com.example.customerservice.model.OrderItem;
+import com.example.customerservice.util.OrdersSheetParser;
+import com.example.customerservice.util.OrdersSheetReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.example.customerservice.util.ExcelProcess.ISUF_LOD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link ImportService#mergeAll} on sheets parsed the way an upload parses them:
+ * a re-upload writes only what changed, whatever day it is made on.
+ */
+@DataJpaTest
+@Import({ ImportService.class, ItemService.class, OrderService.class, OrderItemService.class,
+        CustomerService.class })
+class ImportServiceMergeTest {
+    private static final LocalDateTime FIRST_UPLOAD = LocalDateTime.of(2026, 6, 10, 9, 30);
+    private static final LocalDateTime SECOND_UPLOAD = LocalDateTime.of(2026, 6, 10, 11, 0);
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private CustomerService customerService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderItemService orderItemService;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // three customer blocks; every product of the second block also appears in another one
+    private static String[][][] sheet() {
+        return new String[][][] {
+                { { "דנה כהן " + ISUF_LOD + " 050-1234567" },
+                        { "עגבנייה ישראלית", "1.500 ק\"ג", "₪14.85" },
+                        { "מלפפון מובחר ישראלי", "1.000 ק\"ג", "₪7.50" },
+                        { "חסה חסלט", "2 יח'", "₪11.80" } },
+                { { "יוסי לוי " + ISUF_LOD + " 052-7654321" },
+                        { "עגבנייה ישראלית", "2.000 ק\"ג", "₪19.80" },
+                        { "חסה חסלט", "1 יח'", "₪5.90" } },
+                { { "מיכל אברהם " + ISUF_LOD + " 054-1112233" },
+                        { "חסה חסלט", "3 יח'", "₪17.70" },
+                        { "לימון", "0.500 ק\"ג", "₪3.75" } } };
+    }
+
+    @Test
+    void unchangedReuploadOnlyTakesTheNewUploadTime() throws Exception {
+        ImportSummary first = upload(sheet(), FIRST_UPLOAD);
+        assertCounts(first, "customers +3, items +4 ~0 -0, orders +3 ~0 -0, order items +7 ~0 -0");
+        Set<Long> orderIds = orderIds();
+        Set<Long> orderItemIds = orderItemIds();
+
+        ImportSummary again = upload(sheet(), SECOND_UPLOAD);
+
+        assertCounts(again, "customers +0, items +0 ~0 -0, orders +0 ~3 -0, order items +0 ~0 -0");
+        assertEquals(orderIds, orderIds());
+        assertEquals(orderItemIds, orderItemIds());
+        for (Order order : orderService.findAll())
+            assertEquals(SECOND_UPLOAD, order.getUploadedAt());
+    }
+
+    @Test
+    void oneCellEditUpdatesOneOrderItem() throws Exception {
+        upload(sheet(), FIRST_UPLOAD);
+        Set<Long> orderItemIds = orderItemIds();
+
+        String[][][] edited = sheet();
+        edited[1][2] = new String[] { "חסה חסלט", "2 יח'", "₪11.80" };
+        ImportSummary summary = upload(edited, SECOND_UPLOAD);
+
+        assertCounts(summary, "customers +0, items +0 ~0 -0, orders +0 ~3 -0, order items +0 ~1 -0");
+        assertEquals(orderItemIds, orderItemIds());
+        float amount = -1;
+        for (OrderItem oi : orderItemService.findAll()) {
+            if (oi.getOrder().getCustomer().getName().equals("יוסי לוי") && oi.getItem().getName().equals("חסה חסלט"))
+                amount = oi.getAmount();
+        }
+        assertEquals(2f, amount);
+    }
+
+    @Test
+    void removedCustomerDeletesOnlyTheirOrder() throws Exception {
+        upload(sheet(), FIRST_UPLOAD);
+
+        String[][][] full = sheet();
+        ImportSummary summary = upload(new String[][][] { full[0], full[2] }, SECOND_UPLOAD);
+
+        assertCounts(summary, "customers +0, items +0 ~0 -0, orders +0 ~2 -1, order items +0 ~0 -2");
+        assertEquals(2, orderService.findAll().size());
+        assertEquals(5, orderItemService.findAll().size());
+    }
+
+    @Test
+    void reuploadOnALaterDayStillMatchesEveryOrder() throws Exception {
+        upload(sheet(), FIRST_UPLOAD);
+        // as if the stored orders had been imported a week ago
+        LocalDate lastWeek = LocalDate.now().minusDays(7);
+        for (Order order : orderService.findAll())
+            order.setDate(lastWeek);
+        entityManager.flush();
+        entityManager.clear();
+        Set<Long> orderIds = orderIds();
+        Set<Long> orderItemIds = orderItemIds();
+
+        ImportSummary summary = upload(sheet(), SECOND_UPLOAD);
+
+        assertCounts(summary, "customers +0, items +0 ~0 -0, orders +0 ~3 -0, order items +0 ~0 -0");
+        assertEquals(orderIds, orderIds());
+        assertEquals(orderItemIds, orderItemIds());
+        for (Order order : orderService.findAll())
+            assertEquals(LocalDate.now(), order.getDate());
+    }
+
+    /** Builds the workbook, parses and merges it as OrdersUploadService does, and starts a fresh session. */
+    private ImportSummary upload(String[][][] blocks, LocalDateTime uploadedAt) throws Exception {
+        OrdersSheetParser parser = new OrdersSheetParser(uploadedAt);
+        OrdersSheetReader.read(new ByteArrayInputStream(workbook(blocks)), parser);
+        parser.resolveCustomers(customerService::findByNamesIgnoreCase);
+        ImportSummary summary = importService.mergeAll(parser.getCustomers(), parser.getItems(),
+                parser.getOrders(), parser.getOrderItems());
+        entityManager.flush();
+        entityManager.clear();
+        return summary;
+    }
+
+    // customer blocks one under the other in the first column group, as in the weekly export
+    private static byte[] workbook(String[][][] blocks) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            int r = 0;
+            for (String[][] block : blocks) {
+                sheet.createRow(r++).createCell(0).setCellValue(block[0][0]);
+                Row title = sheet.createRow(r++);
+                title.createCell(0).setCellValue("מוצר");
+                title.createCell(1).setCellValue("כמות");
+                title.createCell(2).setCellValue("מחיר");
+                for (int i = 1; i < block.length; i++) {
+                    Row row = sheet.createRow(r++);
+                    for (int c = 0; c < block[i].length; c++)
+                        row.createCell(c).setCellValue(block[i][c]);
+                }
+                r++;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void assertCounts(ImportSummary summary, String expected) {
+        String actual = "customers +" + summary.getCustomersInserted()
+                + ", items +" + summary.getItemsInserted() + " ~" + summary.getItemsUpdated()
+                + " -" + summary.getItemsDeleted()
+                + ", orders +" + summary.getOrdersInserted() + " ~" + summary.getOrdersUpdated()
+                + " -" + summary.getOrdersDeleted()
+                + ", order items +" + summary.getOrderItemsInserted() + " ~" + summary.getOrderItemsUpdated()
+                + " -" + summary.getOrderItemsDeleted();
+        assertEquals(expected, actual);
+    }
+
+    private Set<Long> orderIds() {
+        Set<Long> ids = new TreeSet<>();
+        for (Order order : orderService.findAll())
+            ids.add(order.getOrderId());
+        return ids;
+    }
+
+    private Set<Long> orderItemIds() {
+        Set<Long> ids = new TreeSet<>();
+        for (OrderItem oi : orderItemService.findAll())
+            ids.add(oi.getId());
+        return ids;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.customerservice.service;
+
+import com.example.customerservice.model.Customer;
+import com.example.customerservice.model.Payment;
+import com.example.customerservice.repository.PaymentRepository;
+import com.example.customerservice.util.CustomerPhoneIndex;
+import com.example.customerservice.util.PayboxExportReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link PaymentService#record} on overlapping exports: every payment is stored
+ * once, however many exports repeat it.
+ */
+@DataJpaTest
+@Import(PaymentService.class)
+class PaymentServiceTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 10, 12, 9, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private PaymentRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void deletePayments() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void overlappingExportStoresOnlyTheNewPayments() {
+        Customer dana = customer("דנה כהן", "0501234567");
+        CustomerPhoneIndex customers = new CustomerPhoneIndex(List.of(dana));
+        List<PayboxExportReader.Payment> first = List.of(
+                payment("050-1234567", MONDAY.plusHours(2), 120f),
+                payment("052-7654321", MONDAY.plusHours(1), 80f),
+                payment("054-1112233", MONDAY, 95.5f));
+        assertEquals(3, paymentService.record(first, customers));
+        assertEquals(MONDAY.plusHours(2), paymentService.getHighWaterMark());
+
+        // the next export repeats two of those, and adds one at the mark and two after it
+        List<PayboxExportReader.Payment> second = List.of(
+                payment("050-1234567", MONDAY.plusDays(1), 60f),
+                payment("054-1112233", MONDAY.plusHours(3), 95.5f),
+                payment("053-9998877", MONDAY.plusHours(2), 120f),
+                payment("050-1234567", MONDAY.plusHours(2), 120f),
+                payment("052-7654321", MONDAY.plusHours(1), 80f));
+        assertEquals(3, paymentService.record(second, customers));
+
+        assertEquals(Set.of(
+                "050-1234567 " + MONDAY.plusHours(2) + " 120.0",
+                "052-7654321 " + MONDAY.plusHours(1) + " 80.0",
+                "054-1112233 " + MONDAY + " 95.5",
+                "050-1234567 " + MONDAY.plusDays(1) + " 60.0",
+                "054-1112233 " + MONDAY.plusHours(3) + " 95.5",
+                "053-9998877 " + MONDAY.plusHours(2) + " 120.0"), stored());
+        assertEquals(MONDAY.plusDays(1), paymentService.getHighWaterMark());
+        for (Payment p : repository.findAll())
+            assertEquals(p.getPhone().equals("050-1234567") ? dana.getId() : null,
+                    p.getCustomer() == null ? null : p.getCustomer().getId());
+    }
+
+    @Test
+    void sameExportTwiceStoresNothingTheSecondTime() {
+        CustomerPhoneIndex customers = new CustomerPhoneIndex(List.of());
+        List<PayboxExportReader.Payment> export = List.of(
+                payment("050-1234567", MONDAY, 120f),
+                payment("050-1234567", MONDAY, 120f),
+                payment("052-7654321", MONDAY, 120f));
+
+        assertNull(paymentService.getHighWaterMark());
+        assertEquals(2, paymentService.record(export, customers));
+        assertEquals(0, paymentService.record(export, customers));
+        assertEquals(2, repository.count());
+    }
+
+    /**
+     * Another upload of an overlapping export commits the older of the same
+     * payments after this one has read the stored keys: this record fails on the
+     * unique key and stores nothing, and recording again stores the rest.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void clashWithAConcurrentUploadIsSkippedWhenRecordingAgain() {
+        List<PayboxExportReader.Payment> export = List.of(
+                payment("050-1234567", MONDAY, 120f),
+                payment("052-7654321", MONDAY.plusHours(1), 80f));
+        TransactionTemplate otherUpload = new TransactionTemplate(transactionManager);
+        otherUpload.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // the phone lookup runs after the stored keys are read, which is where the other upload commits
+        CustomerPhoneIndex racing = new CustomerPhoneIndex(List.of()) {
+            private boolean committed;
+
+            @Override
+            public Customer find(String phone) {
+                if (!committed) {
+                    committed = true;
+                    otherUpload.executeWithoutResult(status -> {
+                        Payment stored = new Payment();
+                        stored.setPhone("050-1234567");
+                        stored.setPaidAt(MONDAY);
+                        stored.setAmount(120f);
+                        repository.save(stored);
+                    });
+                }
+                return null;
+            }
+        };
+
+        assertThrows(DataIntegrityViolationException.class, () -> paymentService.record(export, racing));
+        assertEquals(1, repository.count());
+
+        assertEquals(1, paymentService.record(export, new CustomerPhoneIndex(List.of())));
+        assertEquals(Set.of("050-1234567 " + MONDAY + " 120.0", "052-7654321 " + MONDAY.plusHours(1) + " 80.0"),
+                stored());
+    }
+
+    private Customer customer(String name, String phones) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setPhones(phones);
+        return entityManager.persist(customer);
+    }
+
+    private static PayboxExportReader.Payment payment(String phone, LocalDateTime paidAt, float amount) {
+        return new PayboxExportReader.Payment("payer " + phone, phone, amount, "אריזה", paidAt);
+    }
+
+    private Set<String> stored() {
+        Set<String> keys = new TreeSet<>();
+        for (Payment p : repository.findAll())
+            keys.add(p.getPhone() + " " + p.getPaidAt() + " " + p.getAmount());
+        return keys;
+    }
+}
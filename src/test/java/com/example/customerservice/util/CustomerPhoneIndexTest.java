@@ -0,0 +1,81 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.model.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CustomerPhoneIndexTest {
+
+    @Test
+    void fieldWithSeveralNumbers() {
+        assertEquals(List.of("234567", "876543"), CustomerPhoneIndex.phones("050-1234567, 052-9876543"));
+        assertEquals(List.of("234567", "876543", "112233", "445566", "778899"),
+                CustomerPhoneIndex.phones("0501234567;0529876543/0541112233|0534445566\n0547778899"));
+        // every space-separated piece is a number on its own
+        assertEquals(List.of("234567", "876543"), CustomerPhoneIndex.phones("0501234567 0529876543"));
+    }
+
+    @Test
+    void spacesInsideOneNumber() {
+        assertEquals(List.of("234567"), CustomerPhoneIndex.phones("050 123 4567"));
+        assertEquals(List.of("234567"), CustomerPhoneIndex.phones("+972 50 123 4567"));
+        assertEquals(List.of("234567", "876543"), CustomerPhoneIndex.phones("050 123 4567, 052 987 6543"));
+    }
+
+    @Test
+    void internationalAndLocalFormsFindTheSameCustomer() {
+        Customer dana = customer("דנה כהן", "050-1234567");
+        CustomerPhoneIndex index = new CustomerPhoneIndex(List.of(dana));
+
+        assertSame(dana, index.find("0501234567"));
+        assertSame(dana, index.find("972-50-1234567"));
+        assertSame(dana, index.find("+972501234567"));
+        assertSame(dana, index.find("050 123 4567"));
+        assertNull(index.find("0501234568"));
+    }
+
+    @Test
+    void storedLastSixDigitsMatchAFullNumber() {
+        // what the orders import stores for a header phone
+        Customer yossi = customer("יוסי לוי", OrdersSheetParser.maskToLast6("052-7654321"));
+        CustomerPhoneIndex index = new CustomerPhoneIndex(List.of(yossi));
+
+        assertSame(yossi, index.find("972-52-7654321"));
+    }
+
+    @Test
+    void sharedNumberGoesToTheFirstCustomer() {
+        Customer first = customer("דנה כהן", "050-1234567, 03-5551234");
+        Customer second = customer("רון כהן", "0501234567");
+        CustomerPhoneIndex index = new CustomerPhoneIndex(List.of(first, second));
+
+        assertSame(first, index.find("0501234567"));
+        assertSame(first, index.find("035551234"));
+    }
+
+    @Test
+    void fieldsWithoutDigits() {
+        assertEquals(List.of(), CustomerPhoneIndex.phones(null));
+        assertEquals(List.of(), CustomerPhoneIndex.phones(""));
+        assertEquals(List.of(), CustomerPhoneIndex.phones("אין טלפון"));
+        assertEquals(List.of("234567"), CustomerPhoneIndex.phones("אין, 050-1234567"));
+
+        CustomerPhoneIndex index = new CustomerPhoneIndex(
+                List.of(customer("מיכל אברהם", "אין טלפון"), customer("רון שמש", null)));
+        assertNull(index.find("אין טלפון"));
+        assertNull(index.find(""));
+        assertNull(index.find(null));
+    }
+
+    private static Customer customer(String name, String phones) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setPhones(phones);
+        return customer;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.customerservice.util;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link MergedRegionIndex#isMerged} against the scan it replaced:
+ * CellRangeAddress.isInRange on every region, for every cell around them.
+ */
+class MergedRegionIndexTest {
+
+    @Test
+    void overlappingRegions() {
+        List<CellRangeAddress> regions = List.of(
+                new CellRangeAddress(2, 6, 0, 2),
+                new CellRangeAddress(4, 9, 1, 3),
+                new CellRangeAddress(3, 4, 2, 2));
+
+        assertMatchesScan(regions);
+        assertTrue(new MergedRegionIndex(regions).isMerged(9, 1));
+        assertFalse(new MergedRegionIndex(regions).isMerged(9, 0));
+    }
+
+    @Test
+    void adjacentRegions() {
+        List<CellRangeAddress> regions = List.of(
+                new CellRangeAddress(0, 2, 0, 0),
+                new CellRangeAddress(3, 5, 0, 0),
+                new CellRangeAddress(7, 8, 0, 0),
+                new CellRangeAddress(0, 1, 1, 1));
+
+        assertMatchesScan(regions);
+        MergedRegionIndex index = new MergedRegionIndex(regions);
+        assertTrue(index.isMerged(3, 0));
+        assertFalse(index.isMerged(6, 0));
+        assertTrue(index.isMerged(7, 0));
+    }
+
+    @Test
+    void singleCellRegions() {
+        List<CellRangeAddress> regions = List.of(
+                new CellRangeAddress(4, 4, 2, 2),
+                new CellRangeAddress(4, 4, 6, 6),
+                new CellRangeAddress(5, 5, 2, 2));
+
+        assertMatchesScan(regions);
+        MergedRegionIndex index = new MergedRegionIndex(regions);
+        assertTrue(index.isMerged(4, 6));
+        assertFalse(index.isMerged(4, 5));
+        assertFalse(index.isMerged(3, 2));
+    }
+
+    @Test
+    void cellsOutsideEveryRegion() {
+        MergedRegionIndex index = new MergedRegionIndex(List.of(new CellRangeAddress(10, 12, 4, 5)));
+
+        assertFalse(index.isMerged(9, 4));
+        assertFalse(index.isMerged(13, 5));
+        assertFalse(index.isMerged(11, 3));
+        assertFalse(index.isMerged(11, 6));
+        assertFalse(index.isMerged(0, 0));
+        assertFalse(new MergedRegionIndex(List.of()).isMerged(0, 0));
+    }
+
+    @Test
+    void randomRegionsMatchTheScan() {
+        Random random = new Random(14);
+        for (int round = 0; round < 500; round++) {
+            List<CellRangeAddress> regions = new ArrayList<>();
+            int count = random.nextInt(12);
+            for (int r = 0; r < count; r++) {
+                int firstRow = random.nextInt(30);
+                int firstCol = random.nextInt(8);
+                regions.add(new CellRangeAddress(firstRow, firstRow + random.nextInt(4), firstCol,
+                        firstCol + random.nextInt(3)));
+            }
+            assertMatchesScan(regions);
+        }
+    }
+
+    // every cell of rows 0-40 and columns 0-12, which covers all the regions and a margin past them
+    private static void assertMatchesScan(List<CellRangeAddress> regions) {
+        MergedRegionIndex index = new MergedRegionIndex(regions);
+        for (int row = 0; row <= 40; row++) {
+            for (int col = 0; col <= 12; col++) {
+                boolean scanned = false;
+                for (CellRangeAddress region : regions) {
+                    if (region.isInRange(row, col)) {
+                        scanned = true;
+                        break;
+                    }
+                }
+                int r = row;
+                int c = col;
+                assertEquals(scanned, index.isMerged(row, col), () -> "(" + r + ", " + c + ") in " + regions);
+            }
+        }
+    }
+}
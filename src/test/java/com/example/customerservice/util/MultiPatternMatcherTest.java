@@ -0,0 +1,87 @@
+package com.example.customerservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiPatternMatcherTest {
+
+    @Test
+    void overlappingPatterns() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("he", "she", "his", "hers"));
+
+        assertEquals(bits(0, 1, 3), matcher.find("ushers"));
+        assertEquals(bits(2), matcher.find("this"));
+        assertTrue(matcher.containsAny("ashe"));
+        assertFalse(matcher.containsAny("hi s"));
+    }
+
+    @Test
+    void blankListNames() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(ExcelProcess.DEFAULT_BLANK_CUSTOMERS);
+
+        assertTrue(matcher.containsAny("יוסף דיין " + ExcelProcess.ISUF_LOD + " 050-1234567"));
+        assertFalse(matcher.containsAny("יוסף דיי " + ExcelProcess.ISUF_LOD));
+        assertFalse(matcher.containsAny("דנה כהן " + ExcelProcess.ISUF_LOD));
+    }
+
+    @Test
+    void emptyPatternsAndTexts() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(List.of("", "ab"));
+
+        assertFalse(matcher.containsAny(""));
+        assertFalse(matcher.containsAny(null));
+        assertEquals(new BitSet(), matcher.find(null));
+        assertEquals(bits(1), matcher.find("xaby"));
+        assertFalse(new MultiPatternMatcher(List.of()).containsAny("anything"));
+    }
+
+    /**
+     * Random patterns and texts over a three-letter alphabet, so patterns overlap,
+     * nest and repeat often, against String.contains on every pattern. Every
+     * other round the third letter is far from the others, so the nodes keep
+     * their edges sorted instead of in a table.
+     */
+    @Test
+    void matchesStringContains() {
+        Random random = new Random(13);
+        for (int round = 0; round < 20_000; round++) {
+            String alphabet = round % 2 == 0 ? "abא" : "ab丁";
+            List<String> patterns = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int p = 0; p < count; p++)
+                patterns.add(randomText(random, alphabet, 1 + random.nextInt(5)));
+            String text = randomText(random, alphabet, random.nextInt(30));
+            MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+
+            BitSet expected = new BitSet();
+            for (int p = 0; p < patterns.size(); p++) {
+                if (text.contains(patterns.get(p)))
+                    expected.set(p);
+            }
+            assertEquals(expected, matcher.find(text), () -> patterns + " in " + text);
+            assertEquals(!expected.isEmpty(), matcher.containsAny(text), () -> patterns + " in " + text);
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++)
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return text.toString();
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int i : indices)
+            bits.set(i);
+        return bits;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.model.Customer;
+import com.example.customerservice.model.Item;
+import com.example.customerservice.model.Item.ItemType;
+import com.example.customerservice.model.Order;
+import com.example.customerservice.model.OrderItem;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.customerservice.util.ExcelProcess.ISUF_LOD;
+import static com.example.customerservice.util.ExcelProcess.strToFloat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The single-pass {@link OrdersSheetParser} against the column-group-at-a-time
+ * loop the upload controller used before it, on the sample workbooks in docs/.
+ */
+class OrdersSheetParserTest {
+
+    /** What the old loop produced. */
+    private static final class Parsed {
+        final List<Customer> customers = new ArrayList<>();
+        final List<Item> items = new ArrayList<>();
+        final List<Order> orders = new ArrayList<>();
+        final List<OrderItem> orderItems = new ArrayList<>();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "docs/orders_list_2026-05-19.xlsx, 88, 80, 88, 1366",
+            "docs/orders_list_2026-06-10.xlsx, 69, 67, 69, 961" })
+    void matchesColumnGroupLoop(String path, int customers, int items, int orders, int orderItems)
+            throws Exception {
+        File file = new File(path);
+        LocalDateTime uploadedAt = LocalDateTime.of(2026, 6, 10, 9, 30);
+
+        Parsed expected = columnGroupLoop(file, uploadedAt);
+        OrdersSheetParser parser = new OrdersSheetParser(uploadedAt);
+        OrdersSheetReader.read(file, parser);
+
+        assertEquals(customers, expected.customers.size());
+        assertEquals(items, expected.items.size());
+        assertEquals(orders, expected.orders.size());
+        assertEquals(orderItems, expected.orderItems.size());
+
+        assertEquals(describeCustomers(expected.customers), describeCustomers(parser.getCustomers()));
+        assertEquals(describeItems(expected.items), describeItems(parser.getItems()));
+        assertEquals(describeOrders(expected.orders), describeOrders(parser.getOrders()));
+        assertEquals(describeOrderItems(expected.orders, expected.orderItems),
+                describeOrderItems(parser.getOrders(), parser.getOrderItems()));
+    }
+
+    /**
+     * The loop UploadOrdersExcelController ran before the streaming parser, one
+     * column group at a time over the whole sheet, without the stored-customer
+     * lookup.
+     */
+    private static Parsed columnGroupLoop(File file, LocalDateTime uploadedAt) throws Exception {
+        Parsed parsed = new Parsed();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+                XSSFWorkbook workbook = new XSSFWorkbook(pkg)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int[] colSet : OrdersSheetParser.COLUMN_SETS) {
+                Customer currentCustomer = null;
+                Order currentOrder = null;
+                for (Row row : sheet) {
+                    Cell firstCell = row.getCell(colSet[0]);
+                    if (firstCell != null && firstCell.getCellType() == CellType.STRING
+                            && firstCell.getStringCellValue().contains(ISUF_LOD)) {
+                        String[] parts = firstCell.getStringCellValue().split(ISUF_LOD);
+                        String name = parts.length > 0 ? parts[0].trim() : null;
+                        String phone = OrdersSheetParser.maskToLast6(parts.length > 1 ? parts[1].trim() : "");
+                        if (name != null && !name.isEmpty()) {
+                            Customer existing = parsed.customers.stream()
+                                    .filter(c -> c.getName().equalsIgnoreCase(name))
+                                    .findFirst().orElse(null);
+                            if (existing == null) {
+                                existing = new Customer();
+                                existing.setName(name);
+                                existing.setPhones(phone);
+                                parsed.customers.add(existing);
+                            }
+                            currentCustomer = existing;
+                            Order order = new Order();
+                            order.setCustomer(currentCustomer);
+                            order.setDate(LocalDate.now());
+                            order.setUploadedAt(uploadedAt);
+                            parsed.orders.add(order);
+                            currentOrder = order;
+                        } else {
+                            currentCustomer = null;
+                            currentOrder = null;
+                        }
+                    } else if (currentCustomer != null && currentOrder != null) {
+                        Cell productCell = row.getCell(colSet[0]);
+                        Cell quantityCell = row.getCell(colSet[1]);
+                        Cell priceCell = row.getCell(colSet[2]);
+                        if (productCell == null || quantityCell == null || priceCell == null
+                                || productCell.getCellType() != CellType.STRING
+                                || "מוצר".equals(productCell.getStringCellValue())
+                                || productCell.getStringCellValue().isEmpty())
+                            continue;
+
+                        String product = productCell.getStringCellValue().replace("\"", "");
+                        String quantityStr = quantityCell.getCellType() == CellType.STRING
+                                ? quantityCell.getStringCellValue()
+                                : String.valueOf(quantityCell.getNumericCellValue());
+                        float quantity = strToFloat(quantityStr.split(" ")[0].trim());
+                        float totalValue = strToFloat(priceCell.getStringCellValue());
+                        float pricePerUnitOrKg = quantity != 0 ? totalValue / quantity : 0f;
+                        ItemType itemType = quantityStr.contains("יח") ? ItemType.unit : ItemType.kg;
+
+                        Item item = parsed.items.stream()
+                                .filter(i -> i.getName().equalsIgnoreCase(product))
+                                .findFirst().orElse(null);
+                        if (item == null && quantity != 0 && pricePerUnitOrKg > 0) {
+                            item = new Item();
+                            item.setName(product);
+                            item.setPrice(pricePerUnitOrKg);
+                            item.setType(itemType);
+                            parsed.items.add(item);
+                        }
+                        if (quantity != 0 && pricePerUnitOrKg > 0 && item != null) {
+                            OrderItem oi = new OrderItem();
+                            oi.setOrder(currentOrder);
+                            oi.setItem(item);
+                            oi.setAmount(quantity);
+                            oi.setTotalPrice(totalValue);
+                            parsed.orderItems.add(oi);
+                        }
+                    }
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private static List<String> describeCustomers(List<Customer> customers) {
+        List<String> lines = new ArrayList<>();
+        for (Customer c : customers)
+            lines.add(c.getName() + " | " + c.getPhones());
+        return lines;
+    }
+
+    private static List<String> describeItems(List<Item> items) {
+        List<String> lines = new ArrayList<>();
+        for (Item i : items)
+            lines.add(i.getName() + " | " + i.getPrice() + " | " + i.getType());
+        return lines;
+    }
+
+    private static List<String> describeOrders(List<Order> orders) {
+        List<String> lines = new ArrayList<>();
+        for (Order o : orders)
+            lines.add(o.getCustomer().getName() + " | " + o.getDate() + " | " + o.getUploadedAt());
+        return lines;
+    }
+
+    // order items name their order by its position in the order list
+    private static List<String> describeOrderItems(List<Order> orders, List<OrderItem> orderItems) {
+        Map<Order, Integer> position = new IdentityHashMap<>();
+        for (int i = 0; i < orders.size(); i++)
+            position.put(orders.get(i), i);
+        List<String> lines = new ArrayList<>();
+        for (OrderItem oi : orderItems)
+            lines.add(position.get(oi.getOrder()) + " | " + oi.getItem().getName() + " | " + oi.getAmount() + " | "
+                    + oi.getTotalPrice());
+        return lines;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.customerservice.util;
+
+import com.example.customerservice.util.PayboxExportReader.Payment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link PayboxExportReader} against what the old backwards walk over the sheet
+ * kept: the payments on or after the cutoff below the last older one, newest
+ * first. An export sorted newest first gives the same payments.
+ */
+class PayboxExportReaderTest {
+    private static final LocalDate SINCE = LocalDate.of(2026, 10, 8);
+
+    // name, phone, type, date; every payment is 100 for a packed order
+    private static final String[][] OLDEST_FIRST = {
+            { "דנה כהן", "972-50-1234567", "payment", "2026-10-01 18:00:00" },
+            { "יוסי לוי", "972-52-7654321", "payment", "2026-10-07 23:59:59" },
+            { "מיכל אברהם", "972-54-1112233", "payment", "2026-10-08 00:00:00" },
+            { "דנה כהן", "972-50-1234567", "refund", "2026-10-09 10:00:00" },
+            { "דנה כהן", "972-50-1234567", "payment", "2026-10-10 12:30:00" },
+            { "יוסי לוי", "972-52-7654321", "payment", "2026-10-12 08:15:00" } };
+
+    @Test
+    void oldestFirstExportKeepsTheWindowNewestFirst() throws Exception {
+        List<Payment> payments = PayboxExportReader.read(export(OLDEST_FIRST), SINCE);
+
+        assertEquals(List.of("יוסי לוי 2026-10-12T08:15", "דנה כהן 2026-10-10T12:30", "מיכל אברהם 2026-10-08T00:00"),
+                describe(payments));
+        assertEquals("052-7654321", payments.get(0).getPhone());
+        assertEquals(100f, payments.get(0).getAmount());
+        assertEquals("אריזה", payments.get(0).getPackageType());
+    }
+
+    @Test
+    void newestFirstExportGivesTheSamePaymentsAndStopsAtTheFirstOlderOne() throws Exception {
+        String[][] newestFirst = reversed(OLDEST_FIRST);
+        PayboxExportReader reader = new PayboxExportReader(SINCE);
+        OrdersSheetReader.read(export(newestFirst), reader);
+
+        assertTrue(reader.isDone());
+        assertEquals(describe(PayboxExportReader.read(export(OLDEST_FIRST), SINCE)), describe(reader.getPayments()));
+    }
+
+    @Test
+    void newestFirstExportIgnoresRowsBelowTheFirstOlderPayment() throws Exception {
+        String[][] newestFirst = Arrays.copyOf(reversed(OLDEST_FIRST), OLDEST_FIRST.length + 1);
+        newestFirst[OLDEST_FIRST.length] = new String[] { "רון שמש", "972-53-9998877", "payment",
+                "2026-10-11 09:00:00" };
+
+        List<Payment> payments = PayboxExportReader.read(export(newestFirst), SINCE);
+
+        assertEquals(List.of("יוסי לוי 2026-10-12T08:15", "דנה כהן 2026-10-10T12:30", "מיכל אברהם 2026-10-08T00:00"),
+                describe(payments));
+    }
+
+    @Test
+    void oldestFirstExportDropsPaymentsAboveTheLastOlderOne() throws Exception {
+        // a late entry for last week below a payment in the window, as the walk would meet it
+        String[][] rows = {
+                { "רון שמש", "972-53-9998877", "payment", "2026-10-01 10:00:00" },
+                { "דנה כהן", "972-50-1234567", "payment", "2026-10-09 10:00:00" },
+                { "יוסי לוי", "972-52-7654321", "payment", "2026-10-02 10:00:00" },
+                { "מיכל אברהם", "972-54-1112233", "payment", "2026-10-10 10:00:00" } };
+
+        assertEquals(List.of("מיכל אברהם 2026-10-10T10:00"), describe(PayboxExportReader.read(export(rows), SINCE)));
+    }
+
+    @Test
+    void exportWithOnlyOlderPaymentsGivesNothing() throws Exception {
+        String[][] rows = {
+                { "דנה כהן", "972-50-1234567", "payment", "2026-09-30 10:00:00" },
+                { "יוסי לוי", "972-52-7654321", "payment", "2026-10-07 23:59:59" } };
+
+        assertTrue(PayboxExportReader.read(export(rows), SINCE).isEmpty());
+        assertTrue(PayboxExportReader.read(export(reversed(rows)), SINCE).isEmpty());
+    }
+
+    @Test
+    void paymentsAtTheSameTimeAreAllKeptLowerRowFirst() throws Exception {
+        String[][] rows = {
+                { "דנה כהן", "972-50-1234567", "payment", "2026-10-01 10:00:00" },
+                { "יוסי לוי", "972-52-7654321", "payment", "2026-10-09 10:00:00" },
+                { "מיכל אברהם", "972-54-1112233", "payment", "2026-10-09 10:00:00" },
+                { "רון שמש", "972-53-9998877", "payment", "2026-10-09 10:00:00" } };
+
+        assertEquals(List.of("רון שמש 2026-10-09T10:00", "מיכל אברהם 2026-10-09T10:00", "יוסי לוי 2026-10-09T10:00"),
+                describe(PayboxExportReader.read(export(rows), SINCE)));
+        // newest first the older payment comes last and ends the read; the lower row still comes first
+        PayboxExportReader reader = new PayboxExportReader(SINCE);
+        OrdersSheetReader.read(export(reversed(rows)), reader);
+        assertTrue(reader.isDone());
+        assertEquals(List.of("יוסי לוי 2026-10-09T10:00", "מיכל אברהם 2026-10-09T10:00", "רון שמש 2026-10-09T10:00"),
+                describe(reader.getPayments()));
+    }
+
+    @Test
+    void exportWithOneValidPayment() throws Exception {
+        String[][] rows = {
+                { "דנה כהן", "972-50-1234567", "refund", "2026-10-09 10:00:00" },
+                { "יוסי לוי", "972-52-7654321", "payment", "not a date" },
+                { "מיכל אברהם", "972-54-1112233", "payment", "2026-10-10 10:00:00" } };
+
+        assertEquals(List.of("מיכל אברהם 2026-10-10T10:00"), describe(PayboxExportReader.read(export(rows), SINCE)));
+        assertEquals(List.of("מיכל אברהם 2026-10-10T10:00"),
+                describe(PayboxExportReader.read(export(reversed(rows)), SINCE)));
+    }
+
+    // a title row, then the rows in the export's column layout
+    private static ByteArrayInputStream export(String[][] rows) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            Row title = sheet.createRow(0);
+            String[] titles = { "שם", "טלפון", "סוג", "סכום", "תאריך", "", "סוג משלוח" };
+            for (int c = 0; c < titles.length; c++)
+                title.createCell(c).setCellValue(titles[c]);
+            for (int r = 0; r < rows.length; r++) {
+                Row row = sheet.createRow(r + 1);
+                row.createCell(0).setCellValue(rows[r][0]);
+                row.createCell(1).setCellValue(rows[r][1]);
+                row.createCell(2).setCellValue(rows[r][2]);
+                row.createCell(3).setCellValue(100.0);
+                row.createCell(4).setCellValue(rows[r][3]);
+                row.createCell(5).setCellValue("");
+                row.createCell(6).setCellValue("אריזה");
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+    }
+
+    private static String[][] reversed(String[][] rows) {
+        List<String[]> list = new ArrayList<>(Arrays.asList(rows));
+        Collections.reverse(list);
+        return list.toArray(new String[0][]);
+    }
+
+    private static List<String> describe(List<Payment> payments) {
+        List<String> lines = new ArrayList<>();
+        for (Payment p : payments)
+            lines.add(p.getName() + " " + p.getPaidAt());
+        return lines;
+    }
+}